@@ -0,0 +1,237 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Whitespace-separated tokens read straight from a byte buffer, one line at a time.
+// Numbers are parsed in place; only tokens outside the exact fast path (mantissas of
+// 2^53 and above, exponents beyond 1e22, NaN, Infinity) go through a String.
+final class AsciiTokenizer {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Mantissas below 2^53 and |exponent| <= 22 convert with a single correctly rounded operation
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+    private long line;
+
+    AsciiTokenizer(ByteBuffer buffer, long firstLine) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.position = buffer.position();
+        this.line = firstLine;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    boolean hasMoreLines() {
+        return position < limit;
+    }
+
+    // Skips blanks on the current line; false once only the line end is left
+    boolean hasMoreTokens() {
+        while (position < limit) {
+            byte c = buffer.get(position);
+            if (c == '\n') {
+                return false;
+            }
+            if (!isBlank(c)) {
+                return true;
+            }
+            position++;
+        }
+        return false;
+    }
+
+    // True when the next token on the current line begins with the given character
+    boolean nextTokenStartsWith(char c) {
+        return hasMoreTokens() && buffer.get(position) == c;
+    }
+
+    // Moves past the end of the current line, whatever is left on it
+    void nextLine() {
+        while (position < limit) {
+            if (buffer.get(position++) == '\n') {
+                break;
+            }
+        }
+        line++;
+    }
+
+    // Number of tokens left on the current line, consuming them
+    int skipTokens() {
+        int count = 0;
+        while (hasMoreTokens()) {
+            skipToken();
+            count++;
+        }
+        return count;
+    }
+
+    void skipToken() {
+        while (position < limit && !isSeparator(buffer.get(position))) {
+            position++;
+        }
+    }
+
+    String nextWord() throws IOException {
+        requireToken();
+        int start = position;
+        skipToken();
+        return text(start, position);
+    }
+
+    long nextLong() throws IOException {
+        requireToken();
+        int start = position;
+        boolean negative = false;
+        byte c = buffer.get(position);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (position < limit) {
+            c = buffer.get(position);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw error("integer out of range", start);
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            position++;
+        }
+        if (digits == 0 || (position < limit && !isSeparator(buffer.get(position)))) {
+            throw error("invalid integer", start);
+        }
+        return negative ? -value : value;
+    }
+
+    double nextDouble() throws IOException {
+        requireToken();
+        int start = position;
+        boolean negative = false;
+        byte c = buffer.get(position);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean exact = true;
+        while (position < limit && (c = buffer.get(position)) >= '0' && c <= '9') {
+            if (mantissa != 0 || c != '0') {
+                if (significant < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    significant++;
+                } else {
+                    exponent++;
+                    exact = false;
+                }
+            }
+            digits++;
+            position++;
+        }
+        if (position < limit && buffer.get(position) == '.') {
+            position++;
+            while (position < limit && (c = buffer.get(position)) >= '0' && c <= '9') {
+                if (mantissa != 0 || c != '0') {
+                    if (significant < 18) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        significant++;
+                        exponent--;
+                    } else {
+                        exact = false;
+                    }
+                } else {
+                    exponent--;
+                }
+                digits++;
+                position++;
+            }
+        }
+        if (digits > 0 && position < limit && ((c = buffer.get(position)) == 'e' || c == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < limit && ((c = buffer.get(position)) == '-' || c == '+')) {
+                negativeExponent = c == '-';
+                position++;
+            }
+            int value = 0;
+            int exponentDigits = 0;
+            while (position < limit && (c = buffer.get(position)) >= '0' && c <= '9') {
+                value = Math.min(value * 10 + (c - '0'), 100000);
+                exponentDigits++;
+                position++;
+            }
+            if (exponentDigits == 0) {
+                exact = false;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (digits > 0 && exact && (position == limit || isSeparator(buffer.get(position)))) {
+            if (mantissa == 0) {
+                return negative ? -0.0 : 0.0;
+            }
+            if (mantissa < MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+                double value = exponent >= 0
+                        ? mantissa * POWERS_OF_TEN[exponent]
+                        : mantissa / POWERS_OF_TEN[-exponent];
+                return negative ? -value : value;
+            }
+        }
+
+        // Slow path: let the JDK round long mantissas and parse NaN, Infinity, hex, ...
+        skipToken();
+        try {
+            return Double.parseDouble(text(start, position));
+        } catch (NumberFormatException e) {
+            throw error("invalid number", start);
+        }
+    }
+
+    private void requireToken() throws IOException {
+        if (!hasMoreTokens()) {
+            throw new IOException("Line " + line + ": unexpected end of line");
+        }
+    }
+
+    private IOException error(String message, int start) {
+        int end = start;
+        while (end < limit && !isSeparator(buffer.get(end))) {
+            end++;
+        }
+        return new IOException("Line " + line + ": " + message + " '" + text(start, end) + "'");
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // Same set as String.trim(), minus the line feed that ends a line
+    private static boolean isBlank(byte c) {
+        return c >= 0 && c <= ' ' && c != '\n';
+    }
+
+    private static boolean isSeparator(byte c) {
+        return c >= 0 && c <= ' ';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,372 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+// Chooses a solver for each system from probes that cost O(nnz) each: one pass over the
+// stored coefficients (size, nonzeros, bandwidth, diagonal dominance, zero diagonal
+// entries), the symmetry check, and a few power iterations on the Jacobi iteration
+// matrix G = I - D^-1 A to estimate its spectral radius rho. Jacobi and Gauss-Seidel
+// converge for any start only when rho < 1, and the number of sweeps they need follows
+// from it, as does the condition number of D^-1 A for conjugate gradients when A is
+// symmetric. Each solver that is expected to converge within maxIterations gets an
+// estimated flop count and the cheapest one, or Gauss elimination, is used. The probes,
+// the estimates and the choice are recorded in the Result (getSolverSelection).
+//
+// A chosen iterative solver that still fails to converge is followed by Gauss
+// elimination when that is affordable, so a system is never left with an iterate that
+// was never going to converge. The delegate solvers are created per solve, so an
+// AutoSolver can be shared like any other solver.
+public class AutoSolver extends LinearSolver {
+    private static final int POWER_STEPS = 20;
+    private static final int AVERAGED_STEPS = 4;
+    // Blocked, vectorized elimination gets several times more flops per second than the
+    // memory-bound sweeps and matrix-vector products of the iterative solvers
+    private static final double DIRECT_SPEEDUP = 4.0;
+    private static final double SOR_THRESHOLD = 0.9;
+    private static final double MAX_OMEGA = 1.99;
+    private static final int SOR_TUNING_SWEEPS = 32;
+    private static final int GMRES_RESTART = 30;
+
+    private boolean fallback = true;
+
+    // Whether a non-converged iterative solve is followed by Gauss elimination
+    public void setFallback(boolean fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+
+        List<String> reasoning = new ArrayList<>();
+        if (system.isTiled()) {
+            // Probing would read every tile, and only the elimination streams them in strips
+            reasoning.add("Tiled storage: only Gauss elimination works out of core");
+            Result result = configure(new GaussSolver()).solve(system);
+            return select(result, reasoning, startTime);
+        }
+
+        Probes probes = new Probes(system);
+        reasoning.add(probes.toString());
+
+        int n = system.getSize();
+        int k = system.getRightHandSideCount();
+        double directCost = ((2.0 / 3.0) * n * n * n + 2.0 * n * n * k) / DIRECT_SPEEDUP;
+        // A sparse matrix is densified for elimination, and its factors take as much again
+        boolean directFeasible = !system.isSparse() || 16.0 * n * n <= Runtime.getRuntime().maxMemory() / 2;
+        List<Candidate> candidates = new ArrayList<>();
+        if (directFeasible) {
+            candidates.add(new Candidate("Gauss elimination", () -> configure(new GaussSolver()), 0, directCost));
+        } else {
+            reasoning.add("Gauss elimination: the dense copy of A would not fit in memory");
+        }
+
+        double sweepCost = (2.0 * probes.nonZeros + n) * k;
+        double rho = probes.spectralRadius;
+        if (probes.zeroDiagonal) {
+            reasoning.add("Jacobi, Gauss-Seidel, SOR: a zero diagonal entry rules them out");
+        } else if (rho >= 1.0) {
+            reasoning.add(String.format(Locale.ROOT, "Jacobi, Gauss-Seidel, SOR: rho = %.4f >= 1, would not converge", rho));
+        } else {
+            // A band of width one (tridiagonal) is consistently ordered: a Gauss-Seidel
+            // sweep then contracts by rho^2 and the optimal SOR factor is known exactly
+            boolean consistentlyOrdered = probes.bandwidth <= 1;
+            // Jacobi is not a candidate: a Gauss-Seidel sweep costs the same and contracts more
+            long sweeps = sweeps(consistentlyOrdered ? rho * rho : rho, probes.initialChange);
+            addIterative(candidates, reasoning, "Gauss-Seidel", () -> configure(new GaussSeidelSolver()), sweeps, sweepCost);
+            if (rho >= SOR_THRESHOLD) {
+                // Adaptive SOR only ever raises omega, which suits an underestimated rho.
+                // Otherwise tuning starts from omega = 1, close to Gauss-Seidel at first.
+                double optimal = Math.min(MAX_OMEGA, 2.0 / (1.0 + Math.sqrt(1.0 - rho * rho)));
+                double omega = consistentlyOrdered ? optimal : 1.0;
+                long sorSweeps = sweeps(optimal - 1.0, probes.initialChange);
+                if (!consistentlyOrdered) {
+                    sorSweeps = 2 * sorSweeps + SOR_TUNING_SWEEPS;
+                }
+                String name = String.format(Locale.ROOT, "adaptive SOR (omega from %.4f)", omega);
+                addIterative(candidates, reasoning, name, () -> {
+                    SORSolver sor = configure(new SORSolver());
+                    sor.setOmega(omega);
+                    sor.setAdaptive(true);
+                    return sor;
+                }, sorSweeps, sweepCost);
+            }
+        }
+
+        boolean preconditionable = !probes.zeroDiagonal;
+        if (probes.symmetric && probes.positiveDiagonal) {
+            // Eigenvalues of D^-1 A lie in [1 - rho, 1 + rho]; without that bound CG is only
+            // known to finish in at most n steps
+            long iterations = n;
+            if (rho < 1.0) {
+                double kappa = (1.0 + rho) / (1.0 - rho);
+                iterations = Math.min(n, (long) Math.ceil(0.5 * Math.sqrt(kappa) * Math.log(2.0 * probes.rhsNorm / tolerance)));
+            }
+            String name = preconditionable ? "conjugate gradients (Jacobi preconditioned)" : "conjugate gradients";
+            addIterative(candidates, reasoning, name, () -> {
+                ConjugateGradientSolver cg = configure(new ConjugateGradientSolver());
+                if (preconditionable) {
+                    cg.setPreconditioner(new JacobiPreconditioner(system));
+                }
+                return cg;
+            }, Math.max(1, iterations), sweepCost + 10.0 * n * k);
+        } else if (!probes.symmetric) {
+            reasoning.add("Conjugate gradients: A is not symmetric");
+        } else {
+            reasoning.add("Conjugate gradients: a diagonal entry is not positive, so A is not positive definite");
+        }
+
+        Candidate chosen = null;
+        for (Candidate candidate : candidates) {
+            if (chosen == null || candidate.cost < chosen.cost) {
+                chosen = candidate;
+            }
+        }
+        if (chosen == null) {
+            // No estimate applies; GMRES converges for any nonsingular A, if slowly
+            boolean ilu = system.isSparse() && !probes.zeroDiagonal;
+            String name = "GMRES(" + GMRES_RESTART + ")" + (ilu ? " (ILU(0) preconditioned)" : "");
+            chosen = new Candidate(name, () -> {
+                GMRESSolver gmres = configure(new GMRESSolver());
+                gmres.setRestart(GMRES_RESTART);
+                if (ilu) {
+                    gmres.setPreconditioner(new ILU0Preconditioner(system.getSparseA()));
+                }
+                return gmres;
+            }, 0, Double.NaN);
+            reasoning.add("Chose " + name + ": no other solver is expected to converge");
+        } else {
+            reasoning.add(String.format(Locale.ROOT, "Chose %s: lowest estimated cost (%.3g flops)", chosen.name, chosen.cost));
+        }
+
+        Result result = chosen.solver.get().solve(system, initialGuess);
+        if (chosen.iterations > 0 && directFeasible && fallback && needsFallback(result)) {
+            reasoning.add(String.format(Locale.ROOT, "%s stopped after %d iterations (%s, %d ms); falling back to Gauss elimination",
+                    chosen.name, result.getIterations(), result.getMessage(), result.getComputationTime()));
+            result = configure(new GaussSolver()).solve(system);
+        }
+        return select(result, reasoning, startTime);
+    }
+
+    // Iterative candidates only count if they are expected to finish within maxIterations
+    private void addIterative(List<Candidate> candidates, List<String> reasoning, String name,
+                              Supplier<LinearSolver> solver, long iterations, double costPerIteration) {
+        double cost = iterations * costPerIteration;
+        if (iterations > maxIterations) {
+            reasoning.add(String.format(Locale.ROOT, "%s: ~%d iterations, over the limit of %d", name, iterations, maxIterations));
+            return;
+        }
+        reasoning.add(String.format(Locale.ROOT, "%s: ~%d iterations, ~%.3g flops", name, iterations, cost));
+        candidates.add(new Candidate(name, solver, iterations, cost));
+    }
+
+    // Sweeps until the summed changes, which start at the first Jacobi step D^-1 b and
+    // shrink by rate per sweep, fall below the tolerance
+    private long sweeps(double rate, double initialChange) {
+        if (initialChange <= tolerance) {
+            return 1;
+        }
+        if (rate <= 0.0) {
+            return 2;
+        }
+        return 1 + (long) Math.ceil(Math.log(tolerance / initialChange) / Math.log(rate));
+    }
+
+    // An interrupted solve was stopped on purpose (e.g. a SolverService timeout)
+    private static boolean needsFallback(Result result) {
+        return result.getSolution() == null
+                || !result.getMessage().equals("Converged") && !result.getMessage().equals("Interrupted");
+    }
+
+    private <S extends LinearSolver> S configure(S solver) {
+        solver.setMaxIterations(maxIterations);
+        solver.setTolerance(tolerance);
+        return solver;
+    }
+
+    private static Result select(Result result, List<String> reasoning, long startTime) {
+        // The probes and any abandoned attempt count as setup of the solve that was kept
+        long total = (System.nanoTime() - startTime) / 1000000;
+        result.setSetupTime(result.getSetupTime() + Math.max(0, total - result.getComputationTime()));
+        result.setSolverSelection(String.join("\n", reasoning));
+        return result;
+    }
+
+    private static final class Candidate {
+        final String name;
+        final Supplier<LinearSolver> solver;
+        final long iterations;
+        final double cost;
+
+        Candidate(String name, Supplier<LinearSolver> solver, long iterations, double cost) {
+            this.name = name;
+            this.solver = solver;
+            this.iterations = iterations;
+            this.cost = cost;
+        }
+    }
+
+    private static final class Probes {
+        final int n;
+        final double[] diagonal;
+        final double[] offDiagonal;
+        long nonZeros;
+        int bandwidth;
+        boolean zeroDiagonal;
+        boolean positiveDiagonal = true;
+        boolean dominant = true;
+        final boolean symmetric;
+        // Infinity norm of G, an upper bound on its spectral radius
+        double jacobiBound;
+        double spectralRadius;
+        double initialChange;
+        final double rhsNorm;
+        final int rightHandSides;
+        final long time;
+
+        Probes(LinearSystem system) {
+            long startTime = System.nanoTime();
+            n = system.getSize();
+            diagonal = new double[n];
+            offDiagonal = new double[n];
+            if (system.isSparse()) {
+                SparseMatrix A = system.getSparseA();
+                int[] rowPtr = A.getRowPointers();
+                int[] colIdx = A.getColumnIndices();
+                double[] values = A.getValues();
+                for (int i = 0; i < n; i++) {
+                    for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                        entry(i, colIdx[p], values[p]);
+                    }
+                }
+            } else {
+                double[] row = system.isOffHeap() ? new double[n] : null;
+                for (int i = 0; i < n; i++) {
+                    double[] a;
+                    int start;
+                    if (row != null) {
+                        system.getOffHeapA().getRow(i, row, 0);
+                        a = row;
+                        start = 0;
+                    } else {
+                        Matrix A = system.getA();
+                        a = A.getData();
+                        start = A.getOffset() + i * A.getStride();
+                    }
+                    for (int j = 0; j < n; j++) {
+                        entry(i, j, a[start + j]);
+                    }
+                }
+            }
+            // With several right-hand sides the estimates follow the worst column: the
+            // largest first change and the largest norm
+            Matrix B = system.getRightHandSides();
+            int k = B.getCols();
+            rightHandSides = k;
+            double[] bs = B.getData();
+            double[] changes = new double[k];
+            double[] squares = new double[k];
+            for (int i = 0; i < n; i++) {
+                int row = B.getOffset() + i * B.getStride();
+                double d = diagonal[i];
+                positiveDiagonal &= d > 0.0;
+                dominant &= Math.abs(d) > offDiagonal[i];
+                if (d == 0.0) {
+                    zeroDiagonal = true;
+                } else {
+                    jacobiBound = Math.max(jacobiBound, offDiagonal[i] / Math.abs(d));
+                }
+                for (int c = 0; c < k; c++) {
+                    double value = bs[row + c];
+                    if (d != 0.0) {
+                        changes[c] += Math.abs(value / d);
+                    }
+                    squares[c] += value * value;
+                }
+            }
+            initialChange = max(changes);
+            symmetric = Validator.isSymmetric(system);
+            rhsNorm = Math.sqrt(max(squares));
+            spectralRadius = zeroDiagonal ? Double.POSITIVE_INFINITY : Math.min(jacobiBound, powerIteration(system));
+            time = (System.nanoTime() - startTime) / 1000000;
+        }
+
+        private void entry(int i, int j, double value) {
+            if (value == 0.0) {
+                return;
+            }
+            nonZeros++;
+            bandwidth = Math.max(bandwidth, Math.abs(i - j));
+            if (i == j) {
+                diagonal[i] = value;
+            } else {
+                offDiagonal[i] += Math.abs(value);
+            }
+        }
+
+        // Geometric mean growth of G^k v over the last few steps. Their number is even, so
+        // that a dominant pair of eigenvalues +-rho (typical of G) gives rho rather than an
+        // oscillation. The growth creeps up towards rho as the iteration goes on, so this
+        // tends to be an underestimate when the eigenvalues near rho are clustered.
+        private double powerIteration(LinearSystem system) {
+            Vector v = new Vector(n);
+            Vector y = new Vector(n);
+            double[] vs = v.getData();
+            double[] ys = y.getData();
+            Random random = new Random(n);
+            for (int i = 0; i < n; i++) {
+                vs[i] = random.nextDouble() - 0.5;
+            }
+            if (n == 0) {
+                return 0.0;
+            }
+            v.scale(1.0 / v.norm());
+            double logGrowth = 0.0;
+            for (int step = 1; step <= POWER_STEPS; step++) {
+                system.multiplyInto(v, y);
+                for (int i = 0; i < n; i++) {
+                    vs[i] -= ys[i] / diagonal[i];
+                }
+                double norm = v.norm();
+                if (norm == 0.0) {
+                    // G is nilpotent, e.g. for a triangular A
+                    return 0.0;
+                }
+                if (step > POWER_STEPS - AVERAGED_STEPS) {
+                    logGrowth += Math.log(norm);
+                }
+                v.scale(1.0 / norm);
+            }
+            return Math.exp(logGrowth / AVERAGED_STEPS);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "Probes (%d ms): %dx%d, %d nonzeros (%.2f%%), bandwidth %d, ",
+                    time, n, n, nonZeros, n == 0 ? 0.0 : 100.0 * nonZeros / ((double) n * n), bandwidth));
+            if (rightHandSides > 1) {
+                sb.append(rightHandSides).append(" right-hand sides (iteration estimates for the worst), ");
+            }
+            sb.append(symmetric ? "symmetric, " : "not symmetric, ");
+            sb.append(dominant ? "diagonally dominant, " : "not diagonally dominant, ");
+            if (zeroDiagonal) {
+                sb.append("zero on the diagonal");
+            } else {
+                sb.append(String.format(Locale.ROOT, "Jacobi spectral radius ~%.4f", spectralRadius));
+            }
+            return sb.toString();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+package solver;
+
+// Right-preconditioned BiCGSTAB for general non-symmetric systems. Uses a fixed set
+// of seven work vectors, nine with a preconditioner.
+// Restarting re-seeds the shadow residual from the true residual; by default this only
+// happens after a breakdown, setRestart(k) additionally forces it every k iterations.
+public class BiCGSTABSolver extends KrylovSolver {
+    public BiCGSTABSolver() {
+        restart = Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+        if (system.getRightHandSideCount() > 1) {
+            return solveColumns(system);
+        }
+
+        int n = system.getSize();
+        int workVectors = preconditioner != null ? 9 : 7;
+        if (vectorsWithinBudget(n) < workVectors) {
+            return budgetExceeded(startTime, workVectors);
+        }
+
+        Vector b = system.getB();
+        Vector x = Vector.wrap(initialIterate(initialGuess, n, 1));
+        Vector r = initialResidual(system, x, initialGuess);
+        Vector rHat = new Vector(n);
+        Vector p = new Vector(n);
+        Vector v = new Vector(n);
+        Vector s = new Vector(n);
+        Vector t = new Vector(n);
+        Vector pHat = preconditionedBuffer(p);
+        Vector sHat = preconditionedBuffer(s);
+        ResidualHistory history = new ResidualHistory();
+
+        int iterations = 0;
+        double residual = r.norm();
+        history.add(residual);
+        double rho = 0.0;
+        double alpha = 0.0;
+        double omega = 0.0;
+        int sinceRestart = 0;
+        boolean freshStart = false;
+        String message = null;
+
+        while (true) {
+            if (residual <= tolerance) {
+                // The recurrence residual drifts from the true one; only stop if both agree
+                system.multiplyInto(x, r);
+                r.scale(-1.0).axpy(1.0, b);
+                residual = r.norm();
+                if (residual <= tolerance) {
+                    break;
+                }
+                sinceRestart = restart;
+            }
+            message = stopReason(iterations >= maxIterations);
+            if (message != null) {
+                break;
+            }
+            if (iterations == 0 || sinceRestart >= restart) {
+                r.copyInto(rHat);
+                p.fill(0.0);
+                v.fill(0.0);
+                rho = alpha = omega = 1.0;
+                sinceRestart = 0;
+                freshStart = true;
+            }
+
+            double rhoNew = rHat.dotProduct(r);
+            if (rhoNew == 0.0) {
+                if (freshStart) {
+                    message = "Breakdown: shadow residual orthogonal to residual";
+                    break;
+                }
+                // Restart from the true residual and try again
+                system.multiplyInto(x, r);
+                r.scale(-1.0).axpy(1.0, b);
+                sinceRestart = restart;
+                continue;
+            }
+
+            // p = r + beta * (p - omega * v)
+            double beta = (rhoNew / rho) * (alpha / omega);
+            p.axpy(-omega, v).scale(beta).axpy(1.0, r);
+            precondition(p, pHat);
+            system.multiplyInto(pHat, v);
+            double rHatV = rHat.dotProduct(v);
+            if (rHatV == 0.0) {
+                message = "Breakdown: shadow residual orthogonal to A * p";
+                break;
+            }
+            alpha = rhoNew / rHatV;
+
+            // s = r - alpha * v
+            r.copyInto(s);
+            s.axpy(-alpha, v);
+            double sNorm = s.norm();
+            if (sNorm <= tolerance) {
+                x.axpy(alpha, pHat);
+                s.copyInto(r);
+                residual = sNorm;
+                iterations++;
+                history.add(residual);
+                continue;
+            }
+
+            precondition(s, sHat);
+            system.multiplyInto(sHat, t);
+            double tt = t.dotProduct(t);
+            omega = tt == 0.0 ? 0.0 : t.dotProduct(s) / tt;
+            x.axpy(alpha, pHat).axpy(omega, sHat);
+
+            // r = s - omega * t
+            s.copyInto(r);
+            r.axpy(-omega, t);
+            rho = rhoNew;
+            residual = r.norm();
+            iterations++;
+            sinceRestart++;
+            freshStart = false;
+            history.add(residual);
+
+            if (omega == 0.0 && residual > tolerance) {
+                sinceRestart = restart;
+            }
+        }
+
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        Result result;
+        if (message == null) {
+            result = new Result(x, "Converged", iterations, computationTime, residual);
+        } else {
+            result = new Result(x, message, iterations, computationTime, residual);
+        }
+        return finish(result, history);
+    }
+}
\ No newline at end of file
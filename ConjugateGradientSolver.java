@@ -0,0 +1,91 @@
+package solver;
+
+// Preconditioned conjugate gradients for symmetric positive definite systems.
+// Restarting resets the search direction to the preconditioned residual; by default
+// it never happens. Uses five work vectors, four without a preconditioner.
+public class ConjugateGradientSolver extends KrylovSolver {
+    private static final String NOT_SPD = "Matrix is not symmetric positive definite";
+
+    public ConjugateGradientSolver() {
+        restart = Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+        if (system.getRightHandSideCount() > 1) {
+            return solveColumns(system);
+        }
+
+        int n = system.getSize();
+        int workVectors = preconditioner != null ? 5 : 4;
+        if (vectorsWithinBudget(n) < workVectors) {
+            return budgetExceeded(startTime, workVectors);
+        }
+
+        if (!Validator.isSymmetric(system)) {
+            long computationTime = (System.nanoTime() - startTime) / 1000000;
+            return new Result(null, NOT_SPD, 0, computationTime);
+        }
+
+        Vector b = system.getB();
+        Vector x = Vector.wrap(initialIterate(initialGuess, n, 1));
+        Vector r = initialResidual(system, x, initialGuess);
+        Vector z = preconditionedBuffer(r);
+        Vector p = new Vector(n);
+        Vector Ap = new Vector(n);
+        ResidualHistory history = new ResidualHistory();
+
+        int iterations = 0;
+        double residual = r.norm();
+        history.add(residual);
+        double rz = 0.0;
+        int sinceRestart = restart;
+
+        while (residual > tolerance) {
+            String stop = stopReason(iterations >= maxIterations);
+            if (stop != null) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                return finish(new Result(x, stop, iterations, computationTime, residual), history);
+            }
+
+            precondition(r, z);
+            double rzNew = r.dotProduct(z);
+            if (sinceRestart >= restart) {
+                z.copyInto(p);
+                sinceRestart = 0;
+            } else {
+                // p = z + beta * p
+                p.scale(rzNew / rz).axpy(1.0, z);
+            }
+            rz = rzNew;
+
+            system.multiplyInto(p, Ap);
+            double pAp = p.dotProduct(Ap);
+            // A non-positive curvature direction can only exist if A is not positive definite
+            if (!(pAp > 0.0)) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                return finish(new Result(x, NOT_SPD, iterations, computationTime, residual), history);
+            }
+
+            double alpha = rz / pAp;
+            x.axpy(alpha, p);
+            r.axpy(-alpha, Ap);
+            residual = r.norm();
+            iterations++;
+            sinceRestart++;
+            history.add(residual);
+        }
+
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        double trueResidual = calculateResidual(system, x);
+        return finish(new Result(x, "Converged", iterations, computationTime, trueResidual), history);
+    }
+}
\ No newline at end of file
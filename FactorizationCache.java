@@ -0,0 +1,251 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Keeps LU factors of dense heap matrices so that a matrix submitted again (with another
+// right-hand side) skips the elimination. Entries are keyed by the dimensions and a
+// 128-bit content hash of the matrix, together with the solver settings that shape the
+// factors. The hash is recomputed on every lookup: getData() lets callers change a matrix
+// behind its back, so a hash cached on the instance could go stale, and hashing is O(n^2)
+// against the O(n^3) elimination it saves. Each entry also keeps a copy of its matrix,
+// and a hit is only used after comparing that copy with the matrix looked up, so a hash
+// collision costs a factorization rather than returning another matrix's factors.
+//
+// The cache holds at most memoryBudget bytes of factors and evicts the least recently
+// used entry, or with Policy.LFU the least used one (the least recent among equals).
+// Lookups are thread-safe; concurrent misses on the same matrix factorize it only once,
+// and the elimination itself runs outside the lock. Cached factors are shared, which is
+// fine because heap LUDecompositions are immutable.
+public class FactorizationCache {
+    public enum Policy { LRU, LFU }
+
+    private static final FactorizationCache SHARED = new FactorizationCache(256L << 20, Policy.LRU);
+
+    private final long memoryBudget;
+    private final Policy policy;
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryUsed;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long collisions;
+
+    public FactorizationCache(long memoryBudget, Policy policy) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+        this.policy = policy;
+    }
+
+    // Process-wide cache with a 256 MB budget
+    public static FactorizationCache shared() {
+        return SHARED;
+    }
+
+    // Cached factors of A for the given solver settings, or factorize(A) on a miss
+    public LUDecomposition get(Matrix A, Object settings, Function<Matrix, LUDecomposition> factorize) {
+        Key key = new Key(A, settings);
+        // Factors, the pivot permutation and the copy of A for the collision check
+        long bytes = 16L * A.getRows() * A.getCols() + 4L * A.getRows();
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                entry.uses++;
+            } else {
+                misses++;
+                entry = new Entry(bytes);
+                // Factors bigger than the whole budget are computed but never kept
+                if (bytes <= memoryBudget) {
+                    entries.put(key, entry);
+                    memoryUsed += bytes;
+                    evict();
+                }
+                owner = true;
+            }
+        }
+        if (owner) {
+            try {
+                entry.contents = copyOf(A);
+                entry.factors.complete(factorize.apply(A));
+            } catch (RuntimeException | Error e) {
+                entry.factors.completeExceptionally(e);
+                remove(key, entry);
+                throw e;
+            }
+        }
+        LUDecomposition factors;
+        try {
+            factors = entry.factors.join();
+        } catch (CompletionException e) {
+            // Another thread's factorization of the same matrix failed; fail the same way
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        // contents was written before the factors were completed, so join() makes it visible
+        if (!owner && !sameContents(entry.contents, A)) {
+            synchronized (this) {
+                hits--;
+                misses++;
+                collisions++;
+            }
+            return factorize.apply(A);
+        }
+        return factors;
+    }
+
+    private static double[] copyOf(Matrix A) {
+        int cols = A.getCols();
+        double[] copy = new double[A.getRows() * cols];
+        for (int i = 0; i < A.getRows(); i++) {
+            System.arraycopy(A.getData(), A.getOffset() + i * A.getStride(), copy, i * cols, cols);
+        }
+        return copy;
+    }
+
+    // Bitwise, like the hash, so that e.g. -0.0 and 0.0 count as different matrices
+    private static boolean sameContents(double[] contents, Matrix A) {
+        int cols = A.getCols();
+        double[] data = A.getData();
+        for (int i = 0; i < A.getRows(); i++) {
+            int row = A.getOffset() + i * A.getStride();
+            if (!Arrays.equals(contents, i * cols, (i + 1) * cols, data, row, row + cols)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void evict() {
+        while (memoryUsed > memoryBudget && entries.size() > 1) {
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            Map.Entry<Key, Entry> victim = it.next();
+            if (policy == Policy.LFU) {
+                while (it.hasNext()) {
+                    Map.Entry<Key, Entry> candidate = it.next();
+                    if (candidate.getValue().uses < victim.getValue().uses) {
+                        victim = candidate;
+                    }
+                }
+            }
+            memoryUsed -= victim.getValue().bytes;
+            entries.remove(victim.getKey());
+            evictions++;
+        }
+    }
+
+    private synchronized void remove(Key key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            memoryUsed -= entry.bytes;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        memoryUsed = 0;
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    // Lookups whose hash matched a cached matrix with different contents
+    public synchronized long getCollisions() { return collisions; }
+    public synchronized int getSize() { return entries.size(); }
+    public synchronized long getMemoryUsed() { return memoryUsed; }
+    public long getMemoryBudget() { return memoryBudget; }
+    public Policy getPolicy() { return policy; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("FactorizationCache %s: %d entries, %.1f of %.1f MB, %d hits, %d misses, %d evictions",
+                policy, entries.size(), memoryUsed / 1048576.0, memoryBudget / 1048576.0, hits, misses, evictions);
+    }
+
+    private static final class Entry {
+        final CompletableFuture<LUDecomposition> factors = new CompletableFuture<>();
+        final long bytes;
+        long uses = 1;
+        double[] contents;
+
+        Entry(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Key {
+        private static final long PRIME1 = 0x9E3779B97F4A7C15L;
+        private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+
+        final int rows;
+        final int cols;
+        final long hash1;
+        final long hash2;
+        final Object settings;
+
+        Key(Matrix A, Object settings) {
+            this.rows = A.getRows();
+            this.cols = A.getCols();
+            this.settings = settings;
+            // Two independent multiplicative hashes over the raw bits, each split into two
+            // interleaved chains so the multiplications of consecutive elements overlap
+            double[] data = A.getData();
+            long a1 = PRIME1;
+            long b1 = PRIME2;
+            long a2 = ~PRIME1;
+            long b2 = ~PRIME2;
+            for (int i = 0; i < rows; i++) {
+                int row = A.getOffset() + i * A.getStride();
+                int j = 0;
+                for (; j + 1 < cols; j += 2) {
+                    long x = Double.doubleToLongBits(data[row + j]);
+                    long y = Double.doubleToLongBits(data[row + j + 1]);
+                    a1 = (a1 ^ x) * PRIME1;
+                    a2 = (a2 ^ y) * PRIME1;
+                    b1 = Long.rotateLeft(b1 + x * PRIME2, 31) * PRIME1;
+                    b2 = Long.rotateLeft(b2 + y * PRIME2, 31) * PRIME1;
+                }
+                if (j < cols) {
+                    long x = Double.doubleToLongBits(data[row + j]);
+                    a1 = (a1 ^ x) * PRIME1;
+                    b1 = Long.rotateLeft(b1 + x * PRIME2, 31) * PRIME1;
+                }
+            }
+            this.hash1 = mix(a1 ^ Long.rotateLeft(a2, 17));
+            this.hash2 = mix(b1 ^ Long.rotateLeft(b2, 29));
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= PRIME2;
+            h ^= h >>> 29;
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return rows == other.rows && cols == other.cols && hash1 == other.hash1 && hash2 == other.hash2
+                    && settings.equals(other.settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash1) * 31 + settings.hashCode();
+        }
+    }
+}
\ No newline at end of file
@@ -1,103 +1,416 @@
-package solver;
-
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-
-public class FileHandler {
-
-    public static LinearSystem readSystemFromFile(String filename) throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(filename));
-        String line;
-        List<double[]> matrixRows = new ArrayList<>();
-        List<Double> vectorElements = new ArrayList<>();
-
-        // Read matrix dimensions
-        line = reader.readLine();
-        String[] dims = line.trim().split("\\s+");
-        int rows = Integer.parseInt(dims[0]);
-        int cols = Integer.parseInt(dims[1]);
-
-        // Read matrix
-        for (int i = 0; i < rows; i++) {
-            line = reader.readLine();
-            if (line == null)
-                throw new IOException("Unexpected end of file");
-            String[] values = line.trim().split("\\s+");
-            double[] row = new double[cols];
-            for (int j = 0; j < cols; j++) {
-                row[j] = Double.parseDouble(values[j]);
-            }
-            matrixRows.add(row);
-        }
-
-        // Read vector
-        for (int i = 0; i < rows; i++) {
-            line = reader.readLine();
-            if (line == null)
-                throw new IOException("Unexpected end of file");
-            vectorElements.add(Double.parseDouble(line.trim()));
-        }
-
-        reader.close();
-
-        // Create matrix and vector
-        Matrix A = new Matrix(rows, cols);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                A.set(i, j, matrixRows.get(i)[j]);
-            }
-        }
-
-        double[] bArray = new double[rows];
-        for (int i = 0; i < rows; i++) {
-            bArray[i] = vectorElements.get(i);
-        }
-        Vector b = new Vector(bArray);
-
-        return new LinearSystem(A, b);
-    }
-
-    public static void writeResultToFile(String filename, Result result, LinearSystem system) throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
-        writer.write("LINEAR EQUATIONS SOLVER - RESULTS\n");
-        writer.write("================================\n\n");
-
-        writer.write("ORIGINAL SYSTEM:\n");
-        writer.write(system.toString());
-        writer.write("\n");
-
-        writer.write("SOLUTION:\n");
-        writer.write(result.toString());
-        writer.write("\n");
-
-        if (result.getSolution() != null) {
-            writer.write("VERIFICATION (A*x should equal b):\n");
-            // Naprawione: używamy metody pomocniczej do konwersji
-            Matrix AxMatrix = system.getA().multiply(result.getSolution());
-            Vector Ax = matrixToVector(AxMatrix);
-            writer.write("A*x = " + Ax.toString() + "\n");
-            writer.write("b   = " + system.getB().toString() + "\n");
-        }
-
-        writer.close();
-    }
-
-    // Dodana pomocnicza metoda do konwersji Matrix na Vector
-    private static Vector matrixToVector(Matrix matrix) {
-        if (matrix.getCols() != 1) {
-            throw new IllegalArgumentException("Matrix must have exactly one column to convert to Vector");
-        }
-        Vector vector = new Vector(matrix.getRows());
-        for (int i = 0; i < matrix.getRows(); i++) {
-            vector.set(i, matrix.get(i, 0));
-        }
-        return vector;
-    }
-
-    public static void writeMatrixToFile(String filename, Matrix matrix) throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
-        writer.write(matrix.toCompactString());
-        writer.close();
-    }
+package solver;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class FileHandler {
+    // Binary format: a 40-byte little-endian header followed by the raw elements of A
+    // and then of b (vector length 0 for a matrix on its own)
+    //   int magic "LSYS", int version, int dtype (DTYPE_*), int layout (LAYOUT_*),
+    //   long rows, long cols, long vector length
+    private static final int BINARY_MAGIC = 0x5359534C; // "LSYS" read as little-endian
+    private static final int BINARY_VERSION = 1;
+    private static final int BINARY_HEADER_SIZE = 40;
+    public static final int DTYPE_FLOAT64 = 1;
+    public static final int DTYPE_FLOAT32 = 2;
+    public static final int LAYOUT_ROW_MAJOR = 0;
+    public static final int LAYOUT_COLUMN_MAJOR = 1;
+    // Largest region mapped at once, a multiple of both element sizes
+    private static final long MAP_CHUNK = 1L << 30;
+    private static final int OFF_HEAP_BATCH = 1 << 20;
+
+    // Parsed in parallel chunks straight from the mapped file, see TextSystemParser
+    public static LinearSystem readSystemFromFile(String filename) throws IOException {
+        return TextSystemParser.parse(filename);
+    }
+
+    // Writes a system in the text format read by readSystemFromFile, at full precision.
+    // Rows are read one at a time from the system's storage, dense or not; a tiled
+    // system is read one row strip of tiles at a time.
+    public static void writeSystemToFile(String filename, LinearSystem system) throws IOException {
+        int rows = system.getSize();
+        int cols = system.getCols();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+            writer.write(rows + " " + cols + "\n");
+            StringBuilder line = new StringBuilder();
+            if (system.isTiled()) {
+                TiledMatrix A = system.getTiledA();
+                int tileSize = A.getTileSize();
+                double[] strip = new double[(int) (A.getStripBytes() / Double.BYTES)];
+                for (int I = 0; I < A.getTileRows(); I++) {
+                    A.readRowStrip(I, strip);
+                    int height = Math.min(tileSize, rows - I * tileSize);
+                    for (int r = 0; r < height; r++) {
+                        writeTextRow(writer, line, strip, r * cols, cols);
+                    }
+                }
+            } else {
+                double[] a = new double[cols];
+                for (int i = 0; i < rows; i++) {
+                    system.getRow(i, a, 0);
+                    writeTextRow(writer, line, a, 0, cols);
+                }
+            }
+            for (int i = 0; i < system.getB().getSize(); i++) {
+                writer.write(system.getB().get(i) + "\n");
+            }
+        }
+    }
+
+    private static void writeTextRow(BufferedWriter writer, StringBuilder line, double[] row, int start, int cols)
+            throws IOException {
+        line.setLength(0);
+        for (int j = 0; j < cols; j++) {
+            if (j > 0) line.append(' ');
+            line.append(row[start + j]);
+        }
+        writer.write(line.append('\n').toString());
+    }
+
+    public static void writeResultToFile(String filename, Result result, LinearSystem system) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+        writer.write("LINEAR EQUATIONS SOLVER - RESULTS\n");
+        writer.write("================================\n\n");
+
+        writer.write("ORIGINAL SYSTEM:\n");
+        writer.write(system.toString());
+        writer.write("\n");
+
+        writer.write("SOLUTION:\n");
+        writer.write(result.toString());
+        writer.write("\n");
+
+        if (result.getSolution() != null) {
+            writer.write("VERIFICATION (A*x should equal b):\n");
+            Vector Ax = system.multiply(result.getSolution());
+            writer.write("A*x = " + Ax.toString() + "\n");
+            writer.write("b   = " + system.getB().toString() + "\n");
+        }
+
+        writer.close();
+    }
+
+    public static void writeMatrixToFile(String filename, Matrix matrix) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+        writer.write(matrix.toCompactString());
+        writer.close();
+    }
+
+    // Matrix Market coordinate or array file read straight into CSR storage,
+    // with symmetric and skew-symmetric storage expanded to the full matrix
+    public static SparseMatrix readSparseMatrixFromMatrixMarket(String filename) throws IOException {
+        return MatrixMarket.read(filename);
+    }
+
+    public static Vector readVectorFromMatrixMarket(String filename) throws IOException {
+        return MatrixMarket.readVector(filename);
+    }
+
+    public static void writeMatrixToMatrixMarket(String filename, SparseMatrix matrix) throws IOException {
+        MatrixMarket.write(filename, matrix);
+    }
+
+    // Dense vectors such as solutions are written in array format
+    public static void writeVectorToMatrixMarket(String filename, Vector vector) throws IOException {
+        MatrixMarket.write(filename, vector);
+    }
+
+    public static boolean isBinaryFile(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() < BINARY_HEADER_SIZE) {
+                return false;
+            }
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(magic, 0);
+            return magic.getInt(0) == BINARY_MAGIC;
+        }
+    }
+
+    public static LinearSystem readSystemFromBinaryFile(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            BinaryHeader header = readBinaryHeader(channel);
+            if (header.vectorLength != header.rows) {
+                throw new IOException("File holds no right-hand side vector of length " + header.rows);
+            }
+            Matrix A = readBinaryMatrix(channel, header);
+            double[] b = new double[(int) header.rows];
+            readElements(channel, header.dataOffset() + header.rows * header.cols * header.elementSize(),
+                    header.dtype, b, 0, b.length);
+            return new LinearSystem(A, Vector.wrap(b));
+        }
+    }
+
+    public static Matrix readMatrixFromBinaryFile(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            return readBinaryMatrix(channel, readBinaryHeader(channel));
+        }
+    }
+
+    // Loads A straight into off-heap memory, staging at most OFF_HEAP_BATCH values on the heap.
+    // The caller owns the matrix and closes it once done with the system.
+    public static LinearSystem readOffHeapSystemFromBinaryFile(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            BinaryHeader header = readBinaryHeader(channel);
+            if (header.vectorLength != header.rows) {
+                throw new IOException("File holds no right-hand side vector of length " + header.rows);
+            }
+            int rows = (int) header.rows;
+            int cols = (int) header.cols;
+            OffHeapMatrix A = new OffHeapMatrix(rows, cols);
+            try {
+                if (header.layout == LAYOUT_ROW_MAJOR) {
+                    int batch = Math.max(1, OFF_HEAP_BATCH / Math.max(1, cols));
+                    double[] staging = new double[Math.min(rows, batch) * cols];
+                    for (int i = 0; i < rows; i += batch) {
+                        int count = Math.min(batch, rows - i);
+                        readElements(channel, header.dataOffset() + (long) i * cols * header.elementSize(),
+                                header.dtype, staging, 0, count * cols);
+                        for (int r = 0; r < count; r++) {
+                            A.setRow(i + r, staging, r * cols);
+                        }
+                    }
+                } else {
+                    double[] column = new double[rows];
+                    for (int j = 0; j < cols; j++) {
+                        readElements(channel, header.dataOffset() + (long) j * rows * header.elementSize(),
+                                header.dtype, column, 0, rows);
+                        for (int i = 0; i < rows; i++) {
+                            A.set(i, j, column[i]);
+                        }
+                    }
+                }
+                double[] b = new double[rows];
+                readElements(channel, header.dataOffset() + header.rows * header.cols * header.elementSize(),
+                        header.dtype, b, 0, rows);
+                return new LinearSystem(A, Vector.wrap(b));
+            } catch (IOException | RuntimeException e) {
+                A.close();
+                throw e;
+            }
+        }
+    }
+
+    // Copies A into a tile file for out-of-core solving, one tile row strip at a time.
+    // The tiled matrix keeps tileFile and works within memoryBudget bytes of tile cache.
+    public static LinearSystem readTiledSystemFromBinaryFile(String filename, String tileFile, int tileSize,
+                                                             long memoryBudget) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            BinaryHeader header = readBinaryHeader(channel);
+            if (header.vectorLength != header.rows) {
+                throw new IOException("File holds no right-hand side vector of length " + header.rows);
+            }
+            int rows = (int) header.rows;
+            int cols = (int) header.cols;
+            TiledMatrix A = TiledMatrix.create(tileFile, rows, cols, tileSize, memoryBudget);
+            try {
+                double[] strip = new double[(int) (A.getStripBytes() / Double.BYTES)];
+                if (header.layout == LAYOUT_ROW_MAJOR) {
+                    // Each tile row is one contiguous run of the file
+                    for (int I = 0; I < A.getTileRows(); I++) {
+                        int first = I * tileSize;
+                        int height = Math.min(tileSize, rows - first);
+                        readElements(channel, header.dataOffset() + (long) first * cols * header.elementSize(),
+                                header.dtype, strip, 0, height * cols);
+                        A.writeRowStrip(I, strip);
+                    }
+                } else {
+                    // Each tile column is one contiguous run of the file, read in one pass
+                    // and spread into strip[i * T + c]
+                    double[] run = new double[tileSize * rows];
+                    for (int J = 0; J < A.getTileCols(); J++) {
+                        int first = J * tileSize;
+                        int width = Math.min(tileSize, cols - first);
+                        readElements(channel, header.dataOffset() + (long) first * rows * header.elementSize(),
+                                header.dtype, run, 0, width * rows);
+                        for (int c = 0; c < width; c++) {
+                            for (int i = 0; i < rows; i++) {
+                                strip[i * tileSize + c] = run[c * rows + i];
+                            }
+                        }
+                        A.writeColumnStrip(J, 0, strip);
+                    }
+                }
+                double[] b = new double[rows];
+                readElements(channel, header.dataOffset() + header.rows * header.cols * header.elementSize(),
+                        header.dtype, b, 0, rows);
+                return new LinearSystem(A, Vector.wrap(b));
+            } catch (IOException | RuntimeException e) {
+                A.close();
+                throw e;
+            }
+        }
+    }
+
+    public static void writeSystemToBinaryFile(String filename, LinearSystem system) throws IOException {
+        writeBinary(filename, system, true);
+    }
+
+    public static void writeMatrixToBinaryFile(String filename, Matrix matrix) throws IOException {
+        writeBinary(filename, new LinearSystem(matrix, new Vector(matrix.getRows())), false);
+    }
+
+    private static final class BinaryHeader {
+        int dtype;
+        int layout;
+        long rows;
+        long cols;
+        long vectorLength;
+
+        int elementSize() {
+            return dtype == DTYPE_FLOAT32 ? 4 : 8;
+        }
+
+        long dataOffset() {
+            return BINARY_HEADER_SIZE;
+        }
+    }
+
+    private static BinaryHeader readBinaryHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0)
+                throw new IOException("Unexpected end of file");
+        }
+        if (buffer.getInt(0) != BINARY_MAGIC)
+            throw new IOException("Not a binary system file");
+        if (buffer.getInt(4) != BINARY_VERSION)
+            throw new IOException("Unsupported binary format version " + buffer.getInt(4));
+
+        BinaryHeader header = new BinaryHeader();
+        header.dtype = buffer.getInt(8);
+        header.layout = buffer.getInt(12);
+        header.rows = buffer.getLong(16);
+        header.cols = buffer.getLong(24);
+        header.vectorLength = buffer.getLong(32);
+        if (header.dtype != DTYPE_FLOAT64 && header.dtype != DTYPE_FLOAT32)
+            throw new IOException("Unsupported element type " + header.dtype);
+        if (header.layout != LAYOUT_ROW_MAJOR && header.layout != LAYOUT_COLUMN_MAJOR)
+            throw new IOException("Unsupported layout " + header.layout);
+        if (header.rows < 0 || header.cols < 0 || header.vectorLength < 0
+                || header.rows > Integer.MAX_VALUE - 8 || header.cols > Integer.MAX_VALUE - 8)
+            throw new IOException("Invalid dimensions " + header.rows + "x" + header.cols);
+        long expected;
+        try {
+            long elements = Math.addExact(Math.multiplyExact(header.rows, header.cols), header.vectorLength);
+            expected = Math.addExact(header.dataOffset(), Math.multiplyExact(elements, (long) header.elementSize()));
+        } catch (ArithmeticException e) {
+            throw new IOException("Invalid header: " + header.rows + "x" + header.cols + " matrix and vector of "
+                    + header.vectorLength + " overflow the file size");
+        }
+        if (channel.size() < expected)
+            throw new IOException("File is truncated: expected " + expected + " bytes, found " + channel.size());
+        return header;
+    }
+
+    private static Matrix readBinaryMatrix(FileChannel channel, BinaryHeader header) throws IOException {
+        if (header.rows * header.cols > Integer.MAX_VALUE - 8)
+            throw new IOException("Matrix of " + header.rows + "x" + header.cols + " does not fit in heap storage");
+        int rows = (int) header.rows;
+        int cols = (int) header.cols;
+        Matrix A = new Matrix(rows, cols);
+        double[] a = A.getData();
+        if (header.layout == LAYOUT_ROW_MAJOR) {
+            // Same layout as Matrix storage: bulk-copy the mapped pages into the backing array
+            readElements(channel, header.dataOffset(), header.dtype, a, 0, a.length);
+        } else {
+            // Column-major: read column by column into the transposed positions
+            double[] column = new double[rows];
+            long position = header.dataOffset();
+            for (int j = 0; j < cols; j++) {
+                readElements(channel, position, header.dtype, column, 0, rows);
+                for (int i = 0; i < rows; i++) {
+                    a[i * cols + j] = column[i];
+                }
+                position += (long) rows * header.elementSize();
+            }
+        }
+        return A;
+    }
+
+    // Copies count elements starting at the given file position into target[start ..]
+    private static void readElements(FileChannel channel, long position, int dtype, double[] target, int start, int count)
+            throws IOException {
+        int elementSize = dtype == DTYPE_FLOAT32 ? 4 : 8;
+        int done = 0;
+        while (done < count) {
+            int chunk = (int) Math.min(count - done, MAP_CHUNK / elementSize);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                    position + (long) done * elementSize, (long) chunk * elementSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (dtype == DTYPE_FLOAT64) {
+                mapped.asDoubleBuffer().get(target, start + done, chunk);
+            } else {
+                FloatBuffer floats = mapped.asFloatBuffer();
+                for (int k = 0; k < chunk; k++) {
+                    target[start + done + k] = floats.get(k);
+                }
+            }
+            done += chunk;
+        }
+    }
+
+    // A row by row from the system's storage (strip by strip when tiled), then b unless
+    // withVector is false
+    private static void writeBinary(String filename, LinearSystem system, boolean withVector) throws IOException {
+        int rows = system.getSize();
+        int cols = system.getCols();
+        Vector b = withVector ? system.getB() : null;
+        long vectorLength = b == null ? 0 : b.getSize();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(DTYPE_FLOAT64).putInt(LAYOUT_ROW_MAJOR);
+            header.putLong(rows).putLong(cols).putLong(vectorLength);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            if (system.isTiled()) {
+                TiledMatrix A = system.getTiledA();
+                int tileSize = A.getTileSize();
+                double[] strip = new double[(int) (A.getStripBytes() / Double.BYTES)];
+                for (int I = 0; I < A.getTileRows(); I++) {
+                    A.readRowStrip(I, strip);
+                    int height = Math.min(tileSize, rows - I * tileSize);
+                    writeDoubles(channel, buffer, doubles, strip, 0, height * cols);
+                }
+            } else {
+                double[] row = new double[cols];
+                for (int i = 0; i < rows; i++) {
+                    system.getRow(i, row, 0);
+                    writeDoubles(channel, buffer, doubles, row, 0, cols);
+                }
+            }
+            if (b != null) {
+                writeDoubles(channel, buffer, doubles, b.getData(), 0, b.getSize());
+            }
+        }
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer buffer, DoubleBuffer doubles,
+                                     double[] source, int start, int count) throws IOException {
+        int done = 0;
+        while (done < count) {
+            int chunk = Math.min(count - done, doubles.capacity());
+            doubles.clear();
+            doubles.put(source, start + done, chunk);
+            buffer.clear().limit(chunk * 8);
+            writeFully(channel, buffer);
+            done += chunk;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
 }
\ No newline at end of file
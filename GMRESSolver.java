@@ -0,0 +1,147 @@
+package solver;
+
+import java.util.Arrays;
+
+// Restarted GMRES(m) with modified Gram-Schmidt and Givens rotations, right-preconditioned
+// so that the residual it minimizes is the true one. The basis holds m + 1 vectors,
+// where m is the restart length capped by the memory budget.
+public class GMRESSolver extends KrylovSolver {
+
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+        if (system.getRightHandSideCount() > 1) {
+            return solveColumns(system);
+        }
+
+        int n = system.getSize();
+        // Basis vectors plus x, the residual and a preconditioning buffer
+        long available = vectorsWithinBudget(n) - 3;
+        if (available < 2) {
+            return budgetExceeded(startTime, 5);
+        }
+        int m = (int) Math.min(restart, available - 1);
+
+        Vector b = system.getB();
+        Vector x = Vector.wrap(initialIterate(initialGuess, n, 1));
+        Vector r = initialResidual(system, x, initialGuess);
+        Vector z = new Vector(n);
+        Vector[] basis = new Vector[m + 1];
+        for (int i = 0; i <= m; i++) {
+            basis[i] = new Vector(n);
+        }
+        double[] h = new double[(m + 1) * m]; // Hessenberg matrix, h[i * m + j]
+        double[] cs = new double[m];
+        double[] sn = new double[m];
+        double[] g = new double[m + 1];
+        double[] y = new double[m];
+        ResidualHistory history = new ResidualHistory();
+
+        int iterations = 0;
+        String message = null;
+        double beta = r.norm();
+        history.add(beta);
+
+        while (beta > tolerance && stopReason(iterations >= maxIterations) == null) {
+            r.copyInto(basis[0]);
+            basis[0].scale(1.0 / beta);
+            Arrays.fill(g, 0.0);
+            g[0] = beta;
+
+            int k = 0;
+            while (k < m && stopReason(iterations >= maxIterations) == null) {
+                Vector w = basis[k + 1];
+                precondition(basis[k], z);
+                system.multiplyInto(z, w);
+                for (int i = 0; i <= k; i++) {
+                    double hik = w.dotProduct(basis[i]);
+                    h[i * m + k] = hik;
+                    w.axpy(-hik, basis[i]);
+                }
+                double norm = w.norm();
+                h[(k + 1) * m + k] = norm;
+                if (norm != 0.0) {
+                    w.scale(1.0 / norm);
+                }
+
+                // Apply the previous rotations to the new column, then zero its subdiagonal
+                for (int i = 0; i < k; i++) {
+                    double upper = h[i * m + k];
+                    double lower = h[(i + 1) * m + k];
+                    h[i * m + k] = cs[i] * upper + sn[i] * lower;
+                    h[(i + 1) * m + k] = -sn[i] * upper + cs[i] * lower;
+                }
+                double diag = h[k * m + k];
+                double radius = Math.hypot(diag, norm);
+                cs[k] = radius == 0.0 ? 1.0 : diag / radius;
+                sn[k] = radius == 0.0 ? 0.0 : norm / radius;
+                h[k * m + k] = radius;
+                h[(k + 1) * m + k] = 0.0;
+                g[k + 1] = -sn[k] * g[k];
+                g[k] = cs[k] * g[k];
+
+                k++;
+                iterations++;
+                double estimate = Math.abs(g[k]);
+                history.add(estimate);
+                if (estimate <= tolerance || norm == 0.0) {
+                    break;
+                }
+            }
+
+            // A zero on the rotated diagonal (A singular on the Krylov space) leaves the
+            // least-squares problem without a unique solution; keep the last restart's x
+            if (hasZeroDiagonal(h, m, k)) {
+                message = "Breakdown: singular Hessenberg matrix";
+                break;
+            }
+
+            // Least-squares update: solve the k x k upper triangle, then x += M^-1 * V * y
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; j++) {
+                    sum -= h[i * m + j] * y[j];
+                }
+                y[i] = sum / h[i * m + i];
+            }
+            r.fill(0.0);
+            for (int i = 0; i < k; i++) {
+                r.axpy(y[i], basis[i]);
+            }
+            precondition(r, z);
+            x.axpy(1.0, z);
+
+            // True residual for the restart
+            system.multiplyInto(x, r);
+            r.scale(-1.0).axpy(1.0, b);
+            beta = r.norm();
+        }
+
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        Result result;
+        if (message != null) {
+            result = new Result(x, message, iterations, computationTime, beta);
+        } else if (beta > tolerance) {
+            result = new Result(x, stopReason(iterations >= maxIterations), iterations, computationTime, beta);
+        } else {
+            result = new Result(x, "Converged", iterations, computationTime, beta);
+        }
+        return finish(result, history);
+    }
+
+    private static boolean hasZeroDiagonal(double[] h, int m, int k) {
+        for (int i = 0; i < k; i++) {
+            if (h[i * m + i] == 0.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -1,42 +1,229 @@
-package solver;
-
-public class GaussSeidelSolver extends LinearSolver {
-    
-    @Override
-    public Result solve(LinearSystem system) {
-        long startTime = System.nanoTime();
-        validateSystem(system);
-        
-        int n = system.getSize();
-        Vector x = new Vector(n); // Initial guess (zeros)
-        
-        iterations = 0;
-        double error;
-        
-        do {
-            error = 0.0;
-            for (int i = 0; i < n; i++) {
-                double sum = 0.0;
-                for (int j = 0; j < n; j++) {
-                    if (j != i) {
-                        sum += system.getA().get(i, j) * x.get(j);
-                    }
-                }
-                double xNew = (system.getB().get(i) - sum) / system.getA().get(i, i);
-                error += Math.abs(xNew - x.get(i));
-                x.set(i, xNew);
-            }
-            
-            iterations++;
-            
-            if (iterations > maxIterations) {
-                computationTime = (System.nanoTime() - startTime) / 1000000;
-                return new Result(x, "Maximum iterations reached", iterations, computationTime, error);
-            }
-        } while (error > tolerance);
-        
-        computationTime = (System.nanoTime() - startTime) / 1000000;
-        double residual = calculateResidual(system, x);
-        return new Result(x, "Converged", iterations, computationTime, residual);
-    }
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class GaussSeidelSolver extends LinearSolver {
+    private int parallelism = 1;
+    // Shared by every parallel solve of this instance
+    private ForkJoinPool pool;
+    
+    // With more than one worker the rows are relaxed in multicolor order:
+    // colors one after another, all rows of one color concurrently
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+    
+    private synchronized ForkJoinPool pool() {
+        pool = ParallelRows.pool(pool, parallelism);
+        return pool;
+    }
+    
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+    
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+        
+        int n = system.getSize();
+        // With k right-hand sides x holds k unknowns per row and all columns iterate together
+        int k = system.getRightHandSideCount();
+        double[] b = rightHandSides(system);
+        double[] x = initialIterate(initialGuess, n, k);
+        
+        int[][] colorClasses = null;
+        double[] partial = null;
+        ForkJoinPool pool = null;
+        // Block iterates are relaxed sequentially, in natural row order, and so are tiled
+        // systems since their tile cache is not thread-safe
+        if (parallelism > 1 && k == 1 && !system.isTiled()) {
+            if (system.isSparse()) {
+                colorClasses = system.getSparseA().getColorClasses();
+            } else if (system.isOffHeap()) {
+                colorClasses = GraphColoring.colorClasses(system.getOffHeapA());
+            } else {
+                colorClasses = GraphColoring.colorClasses(system.getA());
+            }
+            partial = new double[parallelism * 4];
+            pool = pool();
+        }
+        
+        int iterations = 0;
+        double error;
+        
+        do {
+            if (k > 1) {
+                error = relaxBlock(system, b, x, k, 1.0);
+            } else if (pool != null) {
+                error = colorSweep(system, b, x, colorClasses, partial, pool);
+            } else if (system.isSparse()) {
+                error = sweep(system.getSparseA(), b, x);
+            } else if (system.isOffHeap()) {
+                error = sweep(system.getOffHeapA(), b, x);
+            } else if (system.isTiled()) {
+                error = sweep(system.getTiledA(), b, x);
+            } else {
+                error = sweep(system.getA(), b, x);
+            }
+            
+            iterations++;
+            
+            String stop = stopReason(iterations > maxIterations);
+            if (stop != null) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                return solutionResult(x, k, stop, iterations, computationTime, error);
+            }
+        } while (error > tolerance);
+        
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        double residual = calculateResidual(system, x, k);
+        return solutionResult(x, k, "Converged", iterations, computationTime, residual);
+    }
+    
+    // One multicolor sweep; partial sums of each color are added in chunk order
+    private double colorSweep(LinearSystem system, double[] b, double[] x, int[][] colorClasses,
+                              double[] partial, ForkJoinPool pool) {
+        double error = 0.0;
+        for (int[] rows : colorClasses) {
+            int chunks = Math.min(rows.length, partial.length);
+            ParallelRows.forEach(pool, 0, chunks, 1, (first, last) -> {
+                for (int c = first; c < last; c++) {
+                    int start = (int) ((long) c * rows.length / chunks);
+                    int end = (int) ((long) (c + 1) * rows.length / chunks);
+                    if (system.isSparse()) {
+                        partial[c] = relaxRows(system.getSparseA(), b, x, rows, start, end);
+                    } else if (system.isOffHeap()) {
+                        partial[c] = relaxRows(system.getOffHeapA(), b, x, rows, start, end);
+                    } else {
+                        partial[c] = relaxRows(system.getA(), b, x, rows, start, end);
+                    }
+                }
+            });
+            for (int c = 0; c < chunks; c++) {
+                error += partial[c];
+            }
+        }
+        return error;
+    }
+    
+    private double relaxRows(Matrix A, double[] b, double[] x, int[] rows, int start, int end) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        int offset = A.getOffset();
+        int lda = A.getStride();
+        double error = 0.0;
+        for (int r = start; r < end; r++) {
+            int i = rows[r];
+            int row = offset + i * lda;
+            double sum = Kernels.dotExcept(a, row, x, n, i);
+            double xNew = (b[i] - sum) / a[row + i];
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+    
+    private double relaxRows(OffHeapMatrix A, double[] b, double[] x, int[] rows, int start, int end) {
+        double error = 0.0;
+        for (int r = start; r < end; r++) {
+            int i = rows[r];
+            double xNew = (b[i] - A.offDiagonalDot(i, x)) / A.get(i, i);
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+    
+    private double relaxRows(SparseMatrix A, double[] b, double[] x, int[] rows, int start, int end) {
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        double[] diagonal = A.getDiagonal();
+        double error = 0.0;
+        for (int r = start; r < end; r++) {
+            int i = rows[r];
+            double sum = 0.0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                int j = colIdx[k];
+                if (j != i) {
+                    sum += values[k] * x[j];
+                }
+            }
+            double xNew = (b[i] - sum) / diagonal[i];
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+    
+    // Updates x in place and returns the sum of absolute changes
+    private double sweep(Matrix A, double[] b, double[] x) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        int offset = A.getOffset();
+        int lda = A.getStride();
+        double error = 0.0;
+        for (int i = 0; i < n; i++) {
+            int row = offset + i * lda;
+            double sum = Kernels.dotExcept(a, row, x, n, i);
+            double xNew = (b[i] - sum) / a[row + i];
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+    
+    private double sweep(OffHeapMatrix A, double[] b, double[] x) {
+        double error = 0.0;
+        for (int i = 0; i < A.getRows(); i++) {
+            double xNew = (b[i] - A.offDiagonalDot(i, x)) / A.get(i, i);
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+    
+    // Rows come through the tile cache into one row buffer
+    private double sweep(TiledMatrix A, double[] b, double[] x) {
+        int n = A.getRows();
+        double[] row = new double[n];
+        double error = 0.0;
+        for (int i = 0; i < n; i++) {
+            A.getRow(i, row, 0);
+            double sum = Kernels.dotExcept(row, 0, x, n, i);
+            double xNew = (b[i] - sum) / row[i];
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+    
+    private double sweep(SparseMatrix A, double[] b, double[] x) {
+        int n = A.getRows();
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        double[] diagonal = A.getDiagonal();
+        double error = 0.0;
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                int j = colIdx[k];
+                if (j != i) {
+                    sum += values[k] * x[j];
+                }
+            }
+            double xNew = (b[i] - sum) / diagonal[i];
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
 }
\ No newline at end of file
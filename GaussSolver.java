@@ -1,81 +1,435 @@
-package solver;
-
-public class GaussSolver extends LinearSolver {
-    private boolean partialPivoting = true;
-
-    public void setPartialPivoting(boolean partialPivoting) {
-        this.partialPivoting = partialPivoting;
-    }
-
-    @Override
-    public Result solve(LinearSystem system) {
-        long startTime = System.nanoTime();
-        validateSystem(system);
-
-        int n = system.getSize();
-        Matrix A = system.getA().copy();
-        Vector b = Vector.fromArray(system.getB().toArray());
-
-        // Forward elimination
-        for (int i = 0; i < n; i++) {
-            if (partialPivoting) {
-                partialPivot(A, b, i);
-            }
-
-            // Check for zero pivot
-            if (Math.abs(A.get(i, i)) < tolerance) {
-                computationTime = (System.nanoTime() - startTime) / 1000000;
-                return new Result(null, "Matrix is singular or nearly singular", 0, computationTime);
-            }
-
-            // Eliminate below
-            for (int j = i + 1; j < n; j++) {
-                double factor = A.get(j, i) / A.get(i, i);
-                for (int k = i; k < n; k++) {
-                    A.set(j, k, A.get(j, k) - factor * A.get(i, k));
-                }
-                b.set(j, b.get(j) - factor * b.get(i));
-            }
-        }
-
-        // Back substitution
-        Vector solution = new Vector(n);
-        for (int i = n - 1; i >= 0; i--) {
-            double sum = 0.0;
-            for (int j = i + 1; j < n; j++) {
-                sum += A.get(i, j) * solution.get(j);
-            }
-            solution.set(i, (b.get(i) - sum) / A.get(i, i));
-        }
-
-        computationTime = (System.nanoTime() - startTime) / 1000000;
-        double residual = calculateResidual(system, solution);
-        return new Result(solution, "Solution found", iterations, computationTime, residual);
-    }
-
-    private void partialPivot(Matrix A, Vector b, int row) {
-        int n = A.getRows();
-        int maxRow = row;
-        double maxVal = Math.abs(A.get(row, row));
-
-        for (int i = row + 1; i < n; i++) {
-            if (Math.abs(A.get(i, row)) > maxVal) {
-                maxVal = Math.abs(A.get(i, row));
-                maxRow = i;
-            }
-        }
-
-        if (maxRow != row) {
-            // Swap rows in A
-            for (int j = 0; j < n; j++) {
-                double temp = A.get(row, j);
-                A.set(row, j, A.get(maxRow, j));
-                A.set(maxRow, j, temp);
-            }
-            // Swap rows in b
-            double temp = b.get(row);
-            b.set(row, b.get(maxRow));
-            b.set(maxRow, temp);
-        }
-    }
+package solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class GaussSolver extends LinearSolver {
+    private boolean partialPivoting = true;
+    private int parallelism = 1;
+    private int blockSize = 64;
+    private FactorizationCache factorizationCache;
+    // Shared by every parallel factorization of this instance
+    private ForkJoinPool pool;
+
+    public void setPartialPivoting(boolean partialPivoting) {
+        this.partialPivoting = partialPivoting;
+    }
+
+    // Number of worker threads for elimination; 1 keeps the sequential algorithm
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Reuses factors of dense heap matrices seen before, e.g. FactorizationCache.shared();
+    // null (the default) factorizes every time. Off-heap and tiled factors are never cached.
+    public void setFactorizationCache(FactorizationCache factorizationCache) {
+        this.factorizationCache = factorizationCache;
+    }
+
+    // Panel width of the blocked (parallel) elimination
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public Result solve(LinearSystem system) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+
+        if (system.isOffHeap()) {
+            try (LUDecomposition lu = factorize(system.getOffHeapA())) {
+                return solveWith(system, lu, startTime);
+            }
+        }
+        if (system.isTiled()) {
+            TiledMatrix A = system.getTiledA();
+            long read = A.getBytesRead();
+            long written = A.getBytesWritten();
+            try (LUDecomposition lu = factorize(A)) {
+                Result result = solveWith(system, lu, startTime);
+                result.setBytesRead(A.getBytesRead() - read + lu.getBytesRead());
+                result.setBytesWritten(A.getBytesWritten() - written + lu.getBytesWritten());
+                return result;
+            }
+        }
+        // Elimination fills in a sparse matrix, so it works on a dense copy
+        Matrix A = system.isSparse() ? system.toDenseCopy() : system.getA();
+        FactorizationCache cache = factorizationCache;
+        LUDecomposition lu = cache == null
+                ? factorize(A)
+                : cache.get(A, List.of(partialPivoting, tolerance), this::factorize);
+        return solveWith(system, lu, startTime);
+    }
+
+    private Result solveWith(LinearSystem system, LUDecomposition lu, long startTime) {
+        // Check for zero pivot
+        if (lu.isSingular()) {
+            long computationTime = (System.nanoTime() - startTime) / 1000000;
+            return new Result(null, "Matrix is singular or nearly singular", 0, computationTime);
+        }
+
+        // Several right-hand sides share the one elimination
+        int k = system.getRightHandSideCount();
+        double[] x = k == 1 ? lu.solve(system.getB()).getData() : lu.solve(system.getRightHandSides()).getData();
+
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        double residual = calculateResidual(system, x, k);
+        Result result = solutionResult(x, k, "Solution found", 0, computationTime, residual);
+        result.setDeterminant(lu.getDeterminant());
+        return result;
+    }
+
+    private synchronized ForkJoinPool pool() {
+        pool = ParallelRows.pool(pool, parallelism);
+        return pool;
+    }
+
+    // Factorizes A once so that many right-hand sides can be solved in O(n^2) each
+    public LUDecomposition factorize(Matrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) {
+            throw new IllegalArgumentException("Matrix must be square for this solver");
+        }
+        if (parallelism > 1 && matrix.getRows() > blockSize) {
+            return factorizeBlocked(matrix, pool());
+        }
+
+        int n = matrix.getRows();
+        Matrix A = matrix.copy();
+        double[] a = A.getData();
+        int lda = A.getStride();
+        int[] pivots = identityPermutation(n);
+        int pivotSign = 1;
+
+        // Forward elimination, keeping the multipliers below the diagonal
+        for (int i = 0; i < n; i++) {
+            if (partialPivoting && partialPivot(A, pivots, i)) {
+                pivotSign = -pivotSign;
+            }
+
+            int rowI = i * lda;
+            double pivot = a[rowI + i];
+
+            // Check for zero pivot
+            if (Math.abs(pivot) < tolerance) {
+                return new LUDecomposition(A, pivots, pivotSign, i);
+            }
+
+            // Eliminate below
+            for (int j = i + 1; j < n; j++) {
+                int rowJ = j * lda;
+                double factor = a[rowJ + i] / pivot;
+                a[rowJ + i] = factor;
+                Kernels.axpy(-factor, a, rowI + i + 1, a, rowJ + i + 1, n - i - 1);
+            }
+        }
+        return new LUDecomposition(A, pivots, pivotSign, -1);
+    }
+
+    // Same elimination as the unblocked loop, run on an off-heap copy; only the
+    // current pivot row is brought onto the heap. The factors must be closed after use.
+    public LUDecomposition factorize(OffHeapMatrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) {
+            throw new IllegalArgumentException("Matrix must be square for this solver");
+        }
+        int n = matrix.getRows();
+        OffHeapMatrix A = matrix.copy();
+        int[] pivots = identityPermutation(n);
+        int pivotSign = 1;
+        double[] pivotRow = new double[n];
+        ForkJoinPool pool = parallelism > 1 ? pool() : null;
+
+        try {
+            for (int i = 0; i < n; i++) {
+                if (partialPivoting && partialPivot(A, pivots, i)) {
+                    pivotSign = -pivotSign;
+                }
+
+                double pivot = A.get(i, i);
+                if (Math.abs(pivot) < tolerance) {
+                    return new LUDecomposition(A, pivots, pivotSign, i);
+                }
+
+                A.getRow(i, pivotRow, 0);
+                final int column = i;
+                ParallelRows.RowKernel eliminate = (first, last) -> {
+                    for (int j = first; j < last; j++) {
+                        double factor = A.get(j, column) / pivot;
+                        A.set(j, column, factor);
+                        A.subtractScaled(j, factor, pivotRow, column + 1, n);
+                    }
+                };
+                if (pool == null || n - i <= blockSize) {
+                    eliminate.apply(i + 1, n);
+                } else {
+                    ParallelRows.forEach(pool, i + 1, n, Math.max(1, blockSize / 4), eliminate);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            A.close();
+            throw e;
+        }
+        return new LUDecomposition(A, pivots, pivotSign, -1);
+    }
+
+    // Out-of-core variant of the blocked elimination, one tile column per panel. The factors
+    // go to a scratch tile file next to the matrix's own file. The matrix's memory budget
+    // covers the whole factorization: the matrix's own cache is released first (it is only
+    // read past the cache from then on), and the heap then holds one panel strip plus the
+    // scratch cache, which gets what is left of the budget once the strip is set aside.
+    // Pivots and arithmetic match the in-memory algorithm.
+    public LUDecomposition factorize(TiledMatrix matrix) {
+        if (matrix.getRows() != matrix.getCols()) {
+            throw new IllegalArgumentException("Matrix must be square for this solver");
+        }
+        int n = matrix.getRows();
+        int tileSize = matrix.getTileSize();
+        int tiles = matrix.getTileRows();
+        long tileBytes = (long) tileSize * tileSize * Double.BYTES;
+        if (matrix.getMemoryBudget() - matrix.getStripBytes() < 2 * tileBytes) {
+            throw new IllegalArgumentException("Memory budget must hold a panel strip of " + matrix.getStripBytes()
+                    + " bytes plus two tiles of " + tileBytes + " bytes");
+        }
+        matrix.releaseCache();
+        File directory = matrix.getFile().toAbsolutePath().getParent().toFile();
+        TiledMatrix A;
+        try {
+            A = TiledMatrix.createTemporary(n, n, tileSize, matrix.getMemoryBudget() - matrix.getStripBytes(), directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            // Row strips and column panels share one buffer
+            double[] strip = new double[(int) (matrix.getStripBytes() / Double.BYTES)];
+            for (int I = 0; I < tiles; I++) {
+                matrix.readRowStrip(I, strip);
+                A.writeRowStrip(I, strip);
+            }
+
+            int[] pivots = identityPermutation(n);
+            int pivotSign = 1;
+            for (int K = 0; K < tiles; K++) {
+                int panelStart = K * tileSize;
+                int width = Math.min(tileSize, n - panelStart);
+                int[] swaps = new int[width];
+
+                // Panel factorization on the heap copy of tile column K, rows panelStart..n-1
+                A.readColumnStrip(K, K, strip);
+                for (int p = 0; p < width; p++) {
+                    int i = panelStart + p;
+                    int maxRow = i;
+                    if (partialPivoting) {
+                        double maxVal = Math.abs(strip[i * tileSize + p]);
+                        for (int r = i + 1; r < n; r++) {
+                            double value = Math.abs(strip[r * tileSize + p]);
+                            if (value > maxVal) {
+                                maxVal = value;
+                                maxRow = r;
+                            }
+                        }
+                        if (maxRow != i) {
+                            for (int c = 0; c < tileSize; c++) {
+                                double temp = strip[i * tileSize + c];
+                                strip[i * tileSize + c] = strip[maxRow * tileSize + c];
+                                strip[maxRow * tileSize + c] = temp;
+                            }
+                            int temp = pivots[i];
+                            pivots[i] = pivots[maxRow];
+                            pivots[maxRow] = temp;
+                            pivotSign = -pivotSign;
+                        }
+                    }
+                    swaps[p] = maxRow;
+
+                    double pivot = strip[i * tileSize + p];
+                    if (Math.abs(pivot) < tolerance) {
+                        return new LUDecomposition(A, pivots, pivotSign, i);
+                    }
+                    for (int j = i + 1; j < n; j++) {
+                        double factor = strip[j * tileSize + p] / pivot;
+                        strip[j * tileSize + p] = factor;
+                        Kernels.axpy(-factor, strip, i * tileSize + p + 1, strip, j * tileSize + p + 1, width - p - 1);
+                    }
+                }
+                A.writeColumnStrip(K, K, strip);
+
+                // The panel's row interchanges, applied to every other tile column
+                for (int J = 0; J < tiles; J++) {
+                    if (J == K) {
+                        continue;
+                    }
+                    for (int p = 0; p < width; p++) {
+                        int r1 = panelStart + p;
+                        int r2 = swaps[p];
+                        if (r1 != r2) {
+                            double[] first = A.tile(r1 / tileSize, J, true);
+                            double[] second = A.tile(r2 / tileSize, J, true);
+                            int o1 = (r1 % tileSize) * tileSize;
+                            int o2 = (r2 % tileSize) * tileSize;
+                            for (int c = 0; c < tileSize; c++) {
+                                double temp = first[o1 + c];
+                                first[o1 + c] = second[o2 + c];
+                                second[o2 + c] = temp;
+                            }
+                        }
+                    }
+                }
+
+                for (int J = K + 1; J < tiles; J++) {
+                    int cw = Math.min(tileSize, n - J * tileSize);
+
+                    // Block row of U: apply the panel's unit lower triangle to tile (K, J)
+                    double[] U = A.tile(K, J, true);
+                    for (int p = 0; p < width; p++) {
+                        for (int q = p + 1; q < width; q++) {
+                            Kernels.axpy(-strip[(panelStart + q) * tileSize + p], U, p * tileSize, U, q * tileSize, cw);
+                        }
+                    }
+
+                    // Trailing update A(I, J) -= L(I, K) * U(K, J); L comes from the panel on the heap
+                    for (int I = K + 1; I < tiles; I++) {
+                        int height = Math.min(tileSize, n - I * tileSize);
+                        double[] C = A.tile(I, J, true);
+                        for (int r = 0; r < height; r++) {
+                            int lRow = (I * tileSize + r) * tileSize;
+                            for (int p = 0; p < width; p++) {
+                                Kernels.axpy(-strip[lRow + p], U, p * tileSize, C, r * tileSize, cw);
+                            }
+                        }
+                    }
+                }
+            }
+            return new LUDecomposition(A, pivots, pivotSign, -1);
+        } catch (RuntimeException | Error e) {
+            A.close();
+            throw e;
+        }
+    }
+
+    // Right-looking blocked elimination: factor a panel of blockSize columns,
+    // form the matching block row of U, then update the trailing submatrix in parallel.
+    // Every element sees the same pivots and the same updates in the same order
+    // as the unblocked loop, only regrouped.
+    private LUDecomposition factorizeBlocked(Matrix matrix, ForkJoinPool pool) {
+        int n = matrix.getRows();
+        Matrix A = matrix.copy();
+        double[] a = A.getData();
+        int lda = A.getStride();
+        int[] pivots = identityPermutation(n);
+        int pivotSign = 1;
+
+        for (int kb = 0; kb < n; kb += blockSize) {
+            int panelEnd = Math.min(kb + blockSize, n);
+
+            // Panel factorization: columns kb .. panelEnd-1, all rows below
+            for (int i = kb; i < panelEnd; i++) {
+                if (partialPivoting && partialPivot(A, pivots, i)) {
+                    pivotSign = -pivotSign;
+                }
+
+                int rowI = i * lda;
+                double pivot = a[rowI + i];
+                if (Math.abs(pivot) < tolerance) {
+                    return new LUDecomposition(A, pivots, pivotSign, i);
+                }
+
+                for (int j = i + 1; j < n; j++) {
+                    int rowJ = j * lda;
+                    double factor = a[rowJ + i] / pivot;
+                    a[rowJ + i] = factor;
+                    Kernels.axpy(-factor, a, rowI + i + 1, a, rowJ + i + 1, panelEnd - i - 1);
+                }
+            }
+
+            if (panelEnd == n) {
+                break;
+            }
+
+            // Block row of U: apply the panel's unit lower triangle to columns right of it
+            for (int i = kb; i < panelEnd; i++) {
+                int rowI = i * lda;
+                for (int j = i + 1; j < panelEnd; j++) {
+                    int rowJ = j * lda;
+                    Kernels.axpy(-a[rowJ + i], a, rowI + panelEnd, a, rowJ + panelEnd, n - panelEnd);
+                }
+            }
+
+            // Trailing update A22 -= L21 * U12, rows are independent
+            final int start = kb;
+            final int end = panelEnd;
+            ParallelRows.forEach(pool, panelEnd, n, Math.max(1, blockSize / 4), (first, last) -> {
+                for (int j = first; j < last; j++) {
+                    int rowJ = j * lda;
+                    for (int i = start; i < end; i++) {
+                        Kernels.axpy(-a[rowJ + i], a, i * lda + end, a, rowJ + end, n - end);
+                    }
+                }
+            });
+        }
+        return new LUDecomposition(A, pivots, pivotSign, -1);
+    }
+
+    private static int[] identityPermutation(int n) {
+        int[] pivots = new int[n];
+        for (int i = 0; i < n; i++) {
+            pivots[i] = i;
+        }
+        return pivots;
+    }
+
+    private boolean partialPivot(OffHeapMatrix A, int[] pivots, int row) {
+        int maxRow = row;
+        double maxVal = Math.abs(A.get(row, row));
+        for (int i = row + 1; i < A.getRows(); i++) {
+            double value = Math.abs(A.get(i, row));
+            if (value > maxVal) {
+                maxVal = value;
+                maxRow = i;
+            }
+        }
+
+        if (maxRow != row) {
+            A.swapRows(row, maxRow);
+            int temp = pivots[row];
+            pivots[row] = pivots[maxRow];
+            pivots[maxRow] = temp;
+            return true;
+        }
+        return false;
+    }
+
+    // Returns true when a row swap was made
+    private boolean partialPivot(Matrix A, int[] pivots, int row) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        int lda = A.getStride();
+        int maxRow = row;
+        double maxVal = Math.abs(a[row * lda + row]);
+
+        for (int i = row + 1; i < n; i++) {
+            double value = Math.abs(a[i * lda + row]);
+            if (value > maxVal) {
+                maxVal = value;
+                maxRow = i;
+            }
+        }
+
+        if (maxRow != row) {
+            A.swapRows(row, maxRow);
+            int temp = pivots[row];
+            pivots[row] = pivots[maxRow];
+            pivots[maxRow] = temp;
+            return true;
+        }
+        return false;
+    }
 }
\ No newline at end of file
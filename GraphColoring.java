@@ -0,0 +1,121 @@
+package solver;
+
+import java.util.Arrays;
+
+// Greedy coloring of the adjacency graph of a square matrix, where rows i and j
+// are neighbours when a[i][j] or a[j][i] is nonzero. Rows sharing a color never
+// read each other's unknowns, so they can be relaxed concurrently.
+public class GraphColoring {
+
+    // Rows grouped by color, each group in increasing row order
+    public static int[][] colorClasses(SparseMatrix A) {
+        int n = A.getRows();
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+
+        // Column-wise pattern so that a[j][i] != 0 is also seen from row i
+        int[] colPtr = new int[n + 1];
+        for (int k = 0; k < rowPtr[n]; k++) {
+            colPtr[colIdx[k] + 1]++;
+        }
+        for (int j = 0; j < n; j++) {
+            colPtr[j + 1] += colPtr[j];
+        }
+        int[] rowIdx = new int[rowPtr[n]];
+        int[] next = colPtr.clone();
+        for (int i = 0; i < n; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                rowIdx[next[colIdx[k]]++] = i;
+            }
+        }
+
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        int[] forbidden = new int[n + 1];
+        Arrays.fill(forbidden, -1);
+        int colorCount = 0;
+        for (int i = 0; i < n; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                markNeighbour(colors, forbidden, colIdx[k], i);
+            }
+            for (int k = colPtr[i]; k < colPtr[i + 1]; k++) {
+                markNeighbour(colors, forbidden, rowIdx[k], i);
+            }
+            colorCount = Math.max(colorCount, assignColor(colors, forbidden, i) + 1);
+        }
+        return group(colors, colorCount);
+    }
+
+    public static int[][] colorClasses(Matrix A) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        int offset = A.getOffset();
+        int lda = A.getStride();
+
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        int[] forbidden = new int[n + 1];
+        Arrays.fill(forbidden, -1);
+        int colorCount = 0;
+        for (int i = 0; i < n; i++) {
+            // Only earlier rows are colored yet, so only they can forbid a color
+            for (int j = 0; j < i; j++) {
+                if (a[offset + i * lda + j] != 0.0 || a[offset + j * lda + i] != 0.0) {
+                    markNeighbour(colors, forbidden, j, i);
+                }
+            }
+            colorCount = Math.max(colorCount, assignColor(colors, forbidden, i) + 1);
+        }
+        return group(colors, colorCount);
+    }
+
+    public static int[][] colorClasses(OffHeapMatrix A) {
+        int n = A.getRows();
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        int[] forbidden = new int[n + 1];
+        Arrays.fill(forbidden, -1);
+        int colorCount = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                if (A.get(i, j) != 0.0 || A.get(j, i) != 0.0) {
+                    markNeighbour(colors, forbidden, j, i);
+                }
+            }
+            colorCount = Math.max(colorCount, assignColor(colors, forbidden, i) + 1);
+        }
+        return group(colors, colorCount);
+    }
+
+    private static void markNeighbour(int[] colors, int[] forbidden, int j, int i) {
+        if (j != i && colors[j] >= 0) {
+            forbidden[colors[j]] = i;
+        }
+    }
+
+    private static int assignColor(int[] colors, int[] forbidden, int i) {
+        int color = 0;
+        while (forbidden[color] == i) {
+            color++;
+        }
+        colors[i] = color;
+        return color;
+    }
+
+    private static int[][] group(int[] colors, int colorCount) {
+        int[] sizes = new int[colorCount];
+        for (int color : colors) {
+            sizes[color]++;
+        }
+        int[][] classes = new int[colorCount][];
+        for (int c = 0; c < colorCount; c++) {
+            classes[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+        for (int i = 0; i < colors.length; i++) {
+            int c = colors[i];
+            classes[c][sizes[c]++] = i;
+        }
+        return classes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package solver;
+
+import java.util.Arrays;
+
+// Incomplete LU with zero fill-in: L and U keep exactly the sparsity pattern of A
+// and are stored together in one copy of its CSR values (unit diagonal of L implied).
+public class ILU0Preconditioner extends Preconditioner {
+    private final int n;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] lu;
+    private final int[] diagonalPos;
+
+    public ILU0Preconditioner(Matrix A) {
+        this(SparseMatrix.fromDense(A));
+    }
+
+    public ILU0Preconditioner(SparseMatrix A) {
+        long startTime = System.nanoTime();
+        n = A.getRows();
+        rowPtr = A.getRowPointers();
+        colIdx = A.getColumnIndices();
+        lu = Arrays.copyOf(A.getValues(), A.getNonZeros());
+        diagonalPos = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            diagonalPos[i] = -1;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                if (colIdx[k] == i) {
+                    diagonalPos[i] = k;
+                }
+            }
+            if (diagonalPos[i] < 0) {
+                throw new IllegalArgumentException("Missing diagonal entry in row " + i);
+            }
+        }
+
+        // IKJ variant; position[j] maps a column of the current row to its slot
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < n; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                position[colIdx[k]] = k;
+            }
+            for (int k = rowPtr[i]; k < rowPtr[i + 1] && colIdx[k] < i; k++) {
+                int p = colIdx[k];
+                double pivot = lu[diagonalPos[p]];
+                if (pivot == 0.0) {
+                    throw new IllegalArgumentException("Zero pivot in incomplete factorization at row " + p);
+                }
+                double factor = lu[k] / pivot;
+                lu[k] = factor;
+                for (int q = diagonalPos[p] + 1; q < rowPtr[p + 1]; q++) {
+                    int slot = position[colIdx[q]];
+                    if (slot >= 0) {
+                        lu[slot] -= factor * lu[q];
+                    }
+                }
+            }
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                position[colIdx[k]] = -1;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (lu[diagonalPos[i]] == 0.0) {
+                throw new IllegalArgumentException("Zero pivot in incomplete factorization at row " + i);
+            }
+        }
+        setupTime = (System.nanoTime() - startTime) / 1000000;
+    }
+
+    @Override
+    public void apply(Vector r, Vector z) {
+        double[] rs = r.getData();
+        double[] zs = z.getData();
+
+        // L y = r
+        for (int i = 0; i < n; i++) {
+            double sum = rs[i];
+            for (int k = rowPtr[i]; k < diagonalPos[i]; k++) {
+                sum -= lu[k] * zs[colIdx[k]];
+            }
+            zs[i] = sum;
+        }
+
+        // U z = y
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = zs[i];
+            for (int k = diagonalPos[i] + 1; k < rowPtr[i + 1]; k++) {
+                sum -= lu[k] * zs[colIdx[k]];
+            }
+            zs[i] = sum / lu[diagonalPos[i]];
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+}
\ No newline at end of file
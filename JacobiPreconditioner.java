@@ -0,0 +1,52 @@
+package solver;
+
+// Diagonal scaling: M = diag(A)
+public class JacobiPreconditioner extends Preconditioner {
+    private final double[] inverseDiagonal;
+
+    public JacobiPreconditioner(Matrix A) {
+        this(SparseMatrix.fromDense(A));
+    }
+
+    public JacobiPreconditioner(SparseMatrix A) {
+        long startTime = System.nanoTime();
+        inverseDiagonal = invert(A.getDiagonal());
+        setupTime = (System.nanoTime() - startTime) / 1000000;
+    }
+
+    // Reads only the diagonal from the system's storage, whatever it is
+    public JacobiPreconditioner(LinearSystem system) {
+        long startTime = System.nanoTime();
+        double[] diagonal = new double[system.getSize()];
+        for (int i = 0; i < diagonal.length; i++) {
+            diagonal[i] = system.coefficient(i, i);
+        }
+        inverseDiagonal = invert(diagonal);
+        setupTime = (System.nanoTime() - startTime) / 1000000;
+    }
+
+    private static double[] invert(double[] diagonal) {
+        double[] inverse = new double[diagonal.length];
+        for (int i = 0; i < inverse.length; i++) {
+            if (diagonal[i] == 0.0) {
+                throw new IllegalArgumentException("Zero diagonal entry in row " + i);
+            }
+            inverse[i] = 1.0 / diagonal[i];
+        }
+        return inverse;
+    }
+
+    @Override
+    public void apply(Vector r, Vector z) {
+        double[] rs = r.getData();
+        double[] zs = z.getData();
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            zs[i] = rs[i] * inverseDiagonal[i];
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return inverseDiagonal.length;
+    }
+}
\ No newline at end of file
@@ -1,42 +1,209 @@
-package solver;
-
-public class JacobiSolver extends LinearSolver {
-
-    @Override
-    public Result solve(LinearSystem system) {
-        long startTime = System.nanoTime();
-        validateSystem(system);
-
-        int n = system.getSize();
-        Vector x = new Vector(n); // Initial guess (zeros)
-        Vector xNew = new Vector(n);
-
-        iterations = 0;
-        double error;
-
-        do {
-            for (int i = 0; i < n; i++) {
-                double sum = 0.0;
-                for (int j = 0; j < n; j++) {
-                    if (j != i) {
-                        sum += system.getA().get(i, j) * x.get(j);
-                    }
-                }
-                xNew.set(i, (system.getB().get(i) - sum) / system.getA().get(i, i));
-            }
-
-            error = xNew.subtract(x).norm();
-            x = Vector.fromArray(xNew.toArray());
-            iterations++;
-
-            if (iterations > maxIterations) {
-                computationTime = (System.nanoTime() - startTime) / 1000000;
-                return new Result(x, "Maximum iterations reached", iterations, computationTime, error);
-            }
-        } while (error > tolerance);
-
-        computationTime = (System.nanoTime() - startTime) / 1000000;
-        double residual = calculateResidual(system, x);
-        return new Result(x, "Converged", iterations, computationTime, residual);
-    }
+package solver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class JacobiSolver extends LinearSolver {
+    private int parallelism = 1;
+    // Shared by every parallel solve of this instance
+    private ForkJoinPool pool;
+
+    // Number of worker threads sharing the rows of each sweep; 1 runs sequentially
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    private synchronized ForkJoinPool pool() {
+        pool = ParallelRows.pool(pool, parallelism);
+        return pool;
+    }
+
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+
+        int n = system.getSize();
+        // With k right-hand sides x holds k unknowns per row and all columns iterate together
+        int k = system.getRightHandSideCount();
+        double[] b = rightHandSides(system);
+        double[] x = initialIterate(initialGuess, n, k);
+        double[] xNew = new double[n * k];
+
+        // Rows are split into a fixed set of chunks; each chunk reports its own
+        // sum of squared changes, and the partial sums are added in chunk order
+        int chunks = Math.min(n, parallelism * 4);
+        double[] partial = new double[Math.max(chunks, 1)];
+        double[][] columnSquares = k > 1 ? new double[Math.max(chunks, 1)][k] : null;
+        // Tiled storage is not thread-safe, so tiled systems are always swept sequentially
+        ForkJoinPool pool = parallelism > 1 && !system.isTiled() ? pool() : null;
+
+        int iterations = 0;
+        double error;
+
+        do {
+            if (k > 1) {
+                error = blockSweep(system, b, x, xNew, k, columnSquares, pool);
+            } else if (pool == null) {
+                error = Math.sqrt(sweep(system, b, x, xNew, 0, n));
+            } else {
+                final double[] current = x;
+                final double[] next = xNew;
+                ParallelRows.forEach(pool, 0, chunks, 1, (first, last) -> {
+                    for (int c = first; c < last; c++) {
+                        partial[c] = sweep(system, b, current, next, (int) ((long) c * n / chunks), (int) ((long) (c + 1) * n / chunks));
+                    }
+                });
+                double squares = 0.0;
+                for (int c = 0; c < chunks; c++) {
+                    squares += partial[c];
+                }
+                error = Math.sqrt(squares);
+            }
+
+            double[] temp = x;
+            x = xNew;
+            xNew = temp;
+            iterations++;
+
+            String stop = stopReason(iterations > maxIterations);
+            if (stop != null) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                return solutionResult(x, k, stop, iterations, computationTime, error);
+            }
+        } while (error > tolerance);
+
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        double residual = calculateResidual(system, x, k);
+        return solutionResult(x, k, "Converged", iterations, computationTime, residual);
+    }
+
+    // Sweep over a block iterate, split into the same row chunks as the single-vector
+    // sweep; the error is that of the column that changed most
+    private static double blockSweep(LinearSystem system, double[] b, double[] x, double[] xNew, int k,
+                                     double[][] columnSquares, ForkJoinPool pool) {
+        int n = system.getSize();
+        int parts = pool == null ? 1 : columnSquares.length;
+        ParallelRows.RowKernel kernel = (first, last) -> {
+            for (int part = first; part < last; part++) {
+                blockRows(system, b, x, xNew, k, (int) ((long) part * n / parts), (int) ((long) (part + 1) * n / parts), columnSquares[part]);
+            }
+        };
+        if (pool == null) {
+            kernel.apply(0, 1);
+        } else {
+            ParallelRows.forEach(pool, 0, parts, 1, kernel);
+        }
+        double largest = 0.0;
+        for (int c = 0; c < k; c++) {
+            double squares = 0.0;
+            for (int part = 0; part < parts; part++) {
+                squares += columnSquares[part][c];
+            }
+            largest = Math.max(largest, squares);
+        }
+        return Math.sqrt(largest);
+    }
+
+    private static void blockRows(LinearSystem system, double[] b, double[] x, double[] xNew, int k,
+                                  int start, int end, double[] squares) {
+        double[] sums = new double[k];
+        double[] row = system.isOffHeap() || system.isTiled() ? new double[system.getSize()] : null;
+        Arrays.fill(squares, 0.0);
+        for (int i = start; i < end; i++) {
+            offDiagonalSums(system, i, x, k, sums, row);
+            double diagonal = system.coefficient(i, i);
+            for (int c = 0; c < k; c++) {
+                int p = i * k + c;
+                xNew[p] = (b[p] - sums[c]) / diagonal;
+                double diff = xNew[p] - x[p];
+                squares[c] += diff * diff;
+            }
+        }
+    }
+
+    // Computes xNew for rows start .. end-1 and returns the sum of squared changes
+    private double sweep(LinearSystem system, double[] b, double[] x, double[] xNew, int start, int end) {
+        if (system.isSparse()) {
+            return sweep(system.getSparseA(), b, x, xNew, start, end);
+        }
+        if (system.isTiled()) {
+            return sweep(system.getTiledA(), b, x, xNew, start, end);
+        }
+        return system.isOffHeap()
+                ? sweep(system.getOffHeapA(), b, x, xNew, start, end)
+                : sweep(system.getA(), b, x, xNew, start, end);
+    }
+
+    private double sweep(Matrix A, double[] b, double[] x, double[] xNew, int start, int end) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        int offset = A.getOffset();
+        int lda = A.getStride();
+        double squares = 0.0;
+        for (int i = start; i < end; i++) {
+            int row = offset + i * lda;
+            double sum = Kernels.dotExcept(a, row, x, n, i);
+            xNew[i] = (b[i] - sum) / a[row + i];
+            double diff = xNew[i] - x[i];
+            squares += diff * diff;
+        }
+        return squares;
+    }
+
+    private double sweep(OffHeapMatrix A, double[] b, double[] x, double[] xNew, int start, int end) {
+        double squares = 0.0;
+        for (int i = start; i < end; i++) {
+            xNew[i] = (b[i] - A.offDiagonalDot(i, x)) / A.get(i, i);
+            double diff = xNew[i] - x[i];
+            squares += diff * diff;
+        }
+        return squares;
+    }
+
+    // Rows come through the tile cache into one row buffer
+    private double sweep(TiledMatrix A, double[] b, double[] x, double[] xNew, int start, int end) {
+        int n = A.getRows();
+        double[] row = new double[n];
+        double squares = 0.0;
+        for (int i = start; i < end; i++) {
+            A.getRow(i, row, 0);
+            double sum = Kernels.dotExcept(row, 0, x, n, i);
+            xNew[i] = (b[i] - sum) / row[i];
+            double diff = xNew[i] - x[i];
+            squares += diff * diff;
+        }
+        return squares;
+    }
+
+    // Visits only the stored nonzeros of each row
+    private double sweep(SparseMatrix A, double[] b, double[] x, double[] xNew, int start, int end) {
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        double[] diagonal = A.getDiagonal();
+        double squares = 0.0;
+        for (int i = start; i < end; i++) {
+            double sum = 0.0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                int j = colIdx[k];
+                if (j != i) {
+                    sum += values[k] * x[j];
+                }
+            }
+            xNew[i] = (b[i] - sum) / diagonal[i];
+            double diff = xNew[i] - x[i];
+            squares += diff * diff;
+        }
+        return squares;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package solver;
+
+// Innermost loops of the dense code: dot products (also the rows of a matrix-vector
+// product), axpy updates (row elimination and matrix products) and the off-diagonal row
+// sums of the stationary solvers. This class holds the scalar versions; SimdKernels
+// overrides them with jdk.incubator.vector code. SimdKernels lives in simd/ and is
+// compiled on its own with --add-modules jdk.incubator.vector, so the rest of the tree
+// builds with a plain javac *.java; without it the scalar loops are used. The
+// implementation is chosen once, at startup, from the solver.kernels system property:
+//
+//   auto    SIMD when the jdk.incubator.vector module is resolved, scalar otherwise (default)
+//   simd    as auto, but warns when it has to fall back
+//   scalar  always the scalar loops
+//
+//   java --add-modules jdk.incubator.vector -Dsolver.kernels=simd solver.SolverBenchmark
+//
+// axpy is bit-identical on both paths; the vector dot products add their terms in a
+// different order, so their sums can differ from the scalar ones in the last bits.
+class Kernels {
+    private static final Kernels ACTIVE = select(System.getProperty("solver.kernels", "auto"));
+
+    Kernels() {
+    }
+
+    private static Kernels select(String mode) {
+        if (mode.equals("scalar")) {
+            return new Kernels();
+        }
+        if (!mode.equals("auto") && !mode.equals("simd")) {
+            System.err.println("Unknown solver.kernels value '" + mode + "', using scalar kernels");
+            return new Kernels();
+        }
+        try {
+            // Loaded by name so this class still links when the module is absent
+            return (Kernels) Class.forName("solver.SimdKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if (mode.equals("simd")) {
+                System.err.println("jdk.incubator.vector is not available (" + e + "), using scalar kernels");
+            }
+            return new Kernels();
+        }
+    }
+
+    // Name of the active implementation, for benchmark output
+    static String name() {
+        return ACTIVE.describe();
+    }
+
+    // Sum of a[aOffset + k] * b[bOffset + k] for 0 <= k < length
+    static double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return ACTIVE.dotKernel(a, aOffset, b, bOffset, length);
+    }
+
+    // y[yOffset + k] += alpha * x[xOffset + k] for 0 <= k < length
+    static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        ACTIVE.axpyKernel(alpha, x, xOffset, y, yOffset, length);
+    }
+
+    // Sum of a[row + j] * x[j] over 0 <= j < n, j != skip
+    static double dotExcept(double[] a, int row, double[] x, int n, int skip) {
+        return ACTIVE.dotExceptKernel(a, row, x, n, skip);
+    }
+
+    String describe() {
+        return "scalar";
+    }
+
+    double dotKernel(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        double sum = 0;
+        for (int k = 0; k < length; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+
+    void axpyKernel(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int k = 0; k < length; k++) {
+            y[yOffset + k] += alpha * x[xOffset + k];
+        }
+    }
+
+    double dotExceptKernel(double[] a, int row, double[] x, int n, int skip) {
+        double sum = 0.0;
+        for (int j = 0; j < n; j++) {
+            if (j != skip) {
+                sum += a[row + j] * x[j];
+            }
+        }
+        return sum;
+    }
+}
\ No newline at end of file
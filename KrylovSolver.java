@@ -0,0 +1,100 @@
+package solver;
+
+import java.util.Arrays;
+
+// Common settings for Krylov subspace methods: restart length, a memory budget
+// for the work vectors, an optional preconditioner, and the per-iteration
+// residual history reported in Result. Several right-hand sides are solved column by
+// column (solveColumns), since the Krylov spaces of different columns are not shared.
+public abstract class KrylovSolver extends LinearSolver {
+    protected int restart = 30;
+    protected long memoryBudget = Long.MAX_VALUE;
+    protected Preconditioner preconditioner;
+
+    public void setRestart(int restart) {
+        if (restart < 1) {
+            throw new IllegalArgumentException("Restart length must be at least 1");
+        }
+        this.restart = restart;
+    }
+
+    // Upper bound in bytes for the work vectors kept during a solve
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    // Pass null to solve without preconditioning
+    public void setPreconditioner(Preconditioner preconditioner) {
+        this.preconditioner = preconditioner;
+    }
+
+    @Override
+    protected void validateSystem(LinearSystem system) {
+        super.validateSystem(system);
+        if (preconditioner != null && preconditioner.getSize() != system.getSize()) {
+            throw new IllegalArgumentException("Preconditioner was built for a different matrix size");
+        }
+    }
+
+    // b - A * x0; without an initial guess x0 is zero and this is a copy of b
+    protected static Vector initialResidual(LinearSystem system, Vector x, Vector initialGuess) {
+        Vector b = system.getB();
+        Vector r = b.copy();
+        if (initialGuess != null) {
+            system.multiplyInto(x, r);
+            r.scale(-1.0).axpy(1.0, b);
+        }
+        return r;
+    }
+
+    // z = M^-1 * r, or a plain copy without a preconditioner (nothing to do if z is r)
+    protected void precondition(Vector r, Vector z) {
+        if (preconditioner != null) {
+            preconditioner.apply(r, z);
+        } else if (r != z) {
+            r.copyInto(z);
+        }
+    }
+
+    // Work vector for M^-1 * v; without a preconditioner v itself can be reused
+    protected Vector preconditionedBuffer(Vector v) {
+        return preconditioner != null ? new Vector(v.getSize()) : v;
+    }
+
+    protected Result finish(Result result, ResidualHistory history) {
+        result.setResidualHistory(history.toArray());
+        if (preconditioner != null) {
+            result.setSetupTime(preconditioner.getSetupTime());
+        }
+        return result;
+    }
+
+    // How many vectors of length n fit into the memory budget
+    protected long vectorsWithinBudget(int n) {
+        return memoryBudget / (8L * Math.max(n, 1));
+    }
+
+    protected Result budgetExceeded(long startTime, int vectorsNeeded) {
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        return new Result(null, "Memory budget too small: at least " + vectorsNeeded + " work vectors are needed", 0, computationTime);
+    }
+
+    protected static final class ResidualHistory {
+        private double[] values = new double[64];
+        private int size;
+
+        void add(double residual) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = residual;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package solver;
+
+import java.util.Arrays;
+
+// Result of GaussSolver.factorize: P * A = L * U packed into one matrix
+// (unit lower L below the diagonal, U on and above it) plus the row permutation.
+// Immutable once built, so solve() may be called from several threads at once,
+// except for tiled factors, whose tile cache is single-threaded.
+// Off-heap and tiled factors stay outside the heap until close() releases them.
+public class LUDecomposition implements AutoCloseable {
+    // Columns of a right-hand side block substituted together; the rows of X solved so
+    // far then stay in cache while each row of the factors is applied to them
+    private static final int RHS_BLOCK = 64;
+
+    private final Matrix lu;
+    private final OffHeapMatrix offHeapLu;
+    private final TiledMatrix tiledLu;
+    private final int[] pivots;
+    private final int pivotSign;
+    private final int failedColumn;
+
+    LUDecomposition(Matrix lu, int[] pivots, int pivotSign, int failedColumn) {
+        this.lu = lu;
+        this.offHeapLu = null;
+        this.tiledLu = null;
+        this.pivots = pivots;
+        this.pivotSign = pivotSign;
+        this.failedColumn = failedColumn;
+    }
+
+    LUDecomposition(OffHeapMatrix lu, int[] pivots, int pivotSign, int failedColumn) {
+        this.lu = null;
+        this.offHeapLu = lu;
+        this.tiledLu = null;
+        this.pivots = pivots;
+        this.pivotSign = pivotSign;
+        this.failedColumn = failedColumn;
+    }
+
+    LUDecomposition(TiledMatrix lu, int[] pivots, int pivotSign, int failedColumn) {
+        this.lu = null;
+        this.offHeapLu = null;
+        this.tiledLu = lu;
+        this.pivots = pivots;
+        this.pivotSign = pivotSign;
+        this.failedColumn = failedColumn;
+    }
+
+    public int getSize() {
+        if (lu != null) {
+            return lu.getRows();
+        }
+        return offHeapLu != null ? offHeapLu.getRows() : tiledLu.getRows();
+    }
+
+    // Tile traffic of tiled factors, zero otherwise
+    public long getBytesRead() {
+        return tiledLu != null ? tiledLu.getBytesRead() : 0;
+    }
+
+    public long getBytesWritten() {
+        return tiledLu != null ? tiledLu.getBytesWritten() : 0;
+    }
+
+    public boolean isSingular() {
+        return failedColumn >= 0;
+    }
+
+    // Row i of L * U is row getPivots()[i] of the original matrix
+    public int[] getPivots() {
+        return pivots.clone();
+    }
+
+    public double getDeterminant() {
+        if (isSingular()) {
+            return 0.0;
+        }
+        int n = getSize();
+        double det = pivotSign;
+        for (int i = 0; i < n; i++) {
+            if (lu != null) {
+                det *= lu.getData()[i * n + i];
+            } else {
+                det *= offHeapLu != null ? offHeapLu.get(i, i) : tiledLu.get(i, i);
+            }
+        }
+        return det;
+    }
+
+    public Vector solve(Vector b) {
+        if (b.getSize() != getSize()) {
+            throw new IllegalArgumentException("Vector size doesn't match the factorized matrix");
+        }
+        if (isSingular()) {
+            throw new IllegalStateException("Matrix is singular or nearly singular (zero pivot in column " + failedColumn + ")");
+        }
+        int n = getSize();
+        RowReader rows = new RowReader();
+        double[] a = rows.array;
+        double[] rhs = b.getData();
+        double[] x = new double[n];
+
+        // Forward substitution with unit lower L on the permuted right-hand side
+        for (int i = 0; i < n; i++) {
+            int row = rows.load(i);
+            double value = rhs[pivots[i]];
+            for (int j = 0; j < i; j++) {
+                value -= a[row + j] * x[j];
+            }
+            x[i] = value;
+        }
+
+        // Back substitution with U
+        for (int i = n - 1; i >= 0; i--) {
+            int row = rows.load(i);
+            double sum = 0.0;
+            for (int j = i + 1; j < n; j++) {
+                sum += a[row + j] * x[j];
+            }
+            x[i] = (x[i] - sum) / a[row + i];
+        }
+        return Vector.wrap(x);
+    }
+
+    // Solves A X = B for all k columns of B with one pass over the factors per column block.
+    // Each row of X is updated with whole-row axpy operations, and every column comes out
+    // exactly as solve(Vector) would compute it.
+    public Matrix solve(Matrix B) {
+        if (B.getRows() != getSize()) {
+            throw new IllegalArgumentException("Right-hand side rows don't match the factorized matrix");
+        }
+        if (isSingular()) {
+            throw new IllegalStateException("Matrix is singular or nearly singular (zero pivot in column " + failedColumn + ")");
+        }
+        int n = getSize();
+        int k = B.getCols();
+        RowReader rows = new RowReader();
+        double[] a = rows.array;
+        Matrix X = new Matrix(n, k);
+        double[] x = X.getData();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(B.getData(), B.getOffset() + pivots[i] * B.getStride(), x, i * k, k);
+        }
+
+        // Off-heap and tiled rows are costly to fetch, so those factors are read only once
+        int block = lu != null ? RHS_BLOCK : Math.max(k, 1);
+        double[] sums = new double[Math.min(block, k)];
+        for (int c0 = 0; c0 < k; c0 += block) {
+            int width = Math.min(block, k - c0);
+
+            // Forward substitution with unit lower L
+            for (int i = 0; i < n; i++) {
+                int row = rows.load(i);
+                for (int j = 0; j < i; j++) {
+                    Kernels.axpy(-a[row + j], x, j * k + c0, x, i * k + c0, width);
+                }
+            }
+
+            // Back substitution with U
+            for (int i = n - 1; i >= 0; i--) {
+                int row = rows.load(i);
+                Arrays.fill(sums, 0, width, 0.0);
+                for (int j = i + 1; j < n; j++) {
+                    Kernels.axpy(a[row + j], x, j * k + c0, sums, 0, width);
+                }
+                double pivot = a[row + i];
+                int xi = i * k + c0;
+                for (int c = 0; c < width; c++) {
+                    x[xi + c] = (x[xi + c] - sums[c]) / pivot;
+                }
+            }
+        }
+        return X;
+    }
+
+    // Gives solve() row i of the factors inside one array: the heap matrix itself,
+    // a scratch row copied from off-heap memory, or the tile row strip holding it
+    private final class RowReader {
+        final double[] array;
+        private int loadedStrip = -1;
+
+        RowReader() {
+            int n = getSize();
+            if (lu != null) {
+                array = lu.getData();
+            } else if (offHeapLu != null) {
+                array = new double[n];
+            } else {
+                array = new double[tiledLu.getTileSize() * n];
+            }
+        }
+
+        int load(int i) {
+            if (lu != null) {
+                return i * lu.getStride();
+            }
+            if (offHeapLu != null) {
+                offHeapLu.getRow(i, array, 0);
+                return 0;
+            }
+            int tileSize = tiledLu.getTileSize();
+            if (i / tileSize != loadedStrip) {
+                loadedStrip = i / tileSize;
+                tiledLu.readRowStrip(loadedStrip, array);
+            }
+            return (i % tileSize) * getSize();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (offHeapLu != null) {
+            offHeapLu.close();
+        }
+        if (tiledLu != null) {
+            tiledLu.close();
+        }
+    }
+}
\ No newline at end of file
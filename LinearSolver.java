@@ -1,52 +1,201 @@
-package solver;
-
-public abstract class LinearSolver {
-    protected int iterations;
-    protected long computationTime;
-    protected int maxIterations = 1000;
-    protected double tolerance = 1e-10;
-
-    public abstract Result solve(LinearSystem system);
-
-    public int getIterations() {
-        return iterations;
-    }
-
-    public long getComputationTime() {
-        return computationTime;
-    }
-
-    public void setMaxIterations(int maxIterations) {
-        this.maxIterations = maxIterations;
-    }
-
-    public void setTolerance(double tolerance) {
-        this.tolerance = tolerance;
-    }
-
-    protected void validateSystem(LinearSystem system) {
-        if (system.getA().getRows() != system.getA().getCols()) {
-            throw new IllegalArgumentException("Matrix must be square for this solver");
-        }
-    }
-
-    protected double calculateResidual(LinearSystem system, Vector solution) {
-        // Naprawione: konwertujemy wynik mnożenia Matrix na Vector
-        Matrix AxMatrix = system.getA().multiply(solution);
-        Vector Ax = matrixToVector(AxMatrix);
-        Vector residual = Ax.subtract(system.getB());
-        return residual.norm();
-    }
-
-    // Dodana pomocnicza metoda do konwersji Matrix na Vector
-    private Vector matrixToVector(Matrix matrix) {
-        if (matrix.getCols() != 1) {
-            throw new IllegalArgumentException("Matrix must have exactly one column to convert to Vector");
-        }
-        Vector vector = new Vector(matrix.getRows());
-        for (int i = 0; i < matrix.getRows(); i++) {
-            vector.set(i, matrix.get(i, 0));
-        }
-        return vector;
-    }
+package solver;
+
+import java.util.Arrays;
+
+// Solvers keep only their settings; everything about a particular solve (iterations,
+// timings, residuals) is returned in its Result. A configured solver can therefore be
+// shared by threads solving different systems at the same time, as SolverService does,
+// as long as its settings are not changed while solves are running.
+public abstract class LinearSolver {
+    protected int maxIterations = 1000;
+    protected double tolerance = 1e-10;
+
+    public abstract Result solve(LinearSystem system);
+
+    // Iterative solvers start from initialGuess instead of the zero vector (null keeps
+    // zero), which saves most of the iterations when it is close to the solution, e.g. the
+    // solution of the previous step of a time-stepping loop (see SolverSession). A guess
+    // applies to a single right-hand side. Direct solvers ignore it.
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        return solve(system);
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    // Why an iterative solve has to stop before converging, or null to go on. Besides
+    // running out of iterations, an interrupt of the solving thread stops it (SolverService
+    // interrupts solves that overrun their timeout); the current iterate is then returned.
+    protected String stopReason(boolean iterationsExhausted) {
+        if (iterationsExhausted) {
+            return "Maximum iterations reached";
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return "Interrupted";
+        }
+        return null;
+    }
+
+    protected void validateSystem(LinearSystem system) {
+        if (system.getSize() != system.getCols()) {
+            throw new IllegalArgumentException("Matrix must be square for this solver");
+        }
+    }
+
+    protected double calculateResidual(LinearSystem system, Vector solution) {
+        Vector Ax = system.multiply(solution);
+        return Ax.distance(system.getB());
+    }
+
+    // Largest residual over the columns of x, which holds k unknowns per row
+    protected double calculateResidual(LinearSystem system, double[] x, int k) {
+        if (k == 1) {
+            return calculateResidual(system, Vector.wrap(x));
+        }
+        Matrix X = Matrix.wrap(x, system.getSize(), k);
+        Matrix B = system.getRightHandSides();
+        double largest = 0.0;
+        for (int c = 0; c < k; c++) {
+            largest = Math.max(largest, system.multiply(X.getColumn(c)).distance(B.getColumn(c)));
+        }
+        return largest;
+    }
+
+    // Result for x holding k unknowns per row: a vector for one right-hand side, otherwise
+    // an n x k solution block whose first column also serves as the solution vector
+    protected static Result solutionResult(double[] x, int k, String message, int iterations, long computationTime, double residual) {
+        if (k == 1) {
+            return new Result(Vector.wrap(x), message, iterations, computationTime, residual);
+        }
+        Matrix X = Matrix.wrap(x, x.length / k, k);
+        Result result = new Result(X.getColumn(0), message, iterations, computationTime, residual);
+        result.setSolutions(X);
+        return result;
+    }
+
+    protected static void checkInitialGuess(LinearSystem system, Vector initialGuess) {
+        if (initialGuess == null) {
+            return;
+        }
+        if (system.getRightHandSideCount() > 1) {
+            throw new IllegalArgumentException("An initial guess applies to a single right-hand side");
+        }
+        if (initialGuess.getSize() != system.getCols()) {
+            throw new IllegalArgumentException("Initial guess size doesn't match the system");
+        }
+    }
+
+    // Starting iterate with k unknowns per row: a copy of the guess, or zeros
+    protected static double[] initialIterate(Vector initialGuess, int n, int k) {
+        return initialGuess != null ? initialGuess.getData().clone() : new double[n * k];
+    }
+
+    // The right-hand sides as a row-major n x k array (for k = 1 simply b)
+    protected static double[] rightHandSides(LinearSystem system) {
+        Matrix B = system.getRightHandSides();
+        return B.getOffset() == 0 && B.isContiguous() ? B.getData() : B.copy().getData();
+    }
+
+    // sums[c] = sum over j != i of a[i][j] * x[j * k + c]. One pass over row i of A serves
+    // all k columns of a block iterate; row is scratch of length n for off-heap and tiled storage.
+    protected static void offDiagonalSums(LinearSystem system, int i, double[] x, int k, double[] sums, double[] row) {
+        Arrays.fill(sums, 0, k, 0.0);
+        if (system.isSparse()) {
+            SparseMatrix A = system.getSparseA();
+            int[] rowPtr = A.getRowPointers();
+            int[] colIdx = A.getColumnIndices();
+            double[] values = A.getValues();
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                int j = colIdx[p];
+                if (j != i) {
+                    Kernels.axpy(values[p], x, j * k, sums, 0, k);
+                }
+            }
+            return;
+        }
+        double[] a;
+        int start;
+        if (system.isOffHeap() || system.isTiled()) {
+            system.getRow(i, row, 0);
+            a = row;
+            start = 0;
+        } else {
+            Matrix A = system.getA();
+            a = A.getData();
+            start = A.getOffset() + i * A.getStride();
+        }
+        for (int j = 0; j < system.getCols(); j++) {
+            if (j != i) {
+                Kernels.axpy(a[start + j], x, j * k, sums, 0, k);
+            }
+        }
+    }
+
+    // One Gauss-Seidel (w = 1) or SOR sweep over a block iterate, in place. Returns the
+    // largest over the columns of the summed absolute changes.
+    protected static double relaxBlock(LinearSystem system, double[] b, double[] x, int k, double w) {
+        int n = system.getSize();
+        double[] sums = new double[k];
+        double[] changes = new double[k];
+        double[] row = system.isOffHeap() || system.isTiled() ? new double[n] : null;
+        for (int i = 0; i < n; i++) {
+            offDiagonalSums(system, i, x, k, sums, row);
+            double diagonal = system.coefficient(i, i);
+            for (int c = 0; c < k; c++) {
+                int p = i * k + c;
+                double xNew = (b[p] - sums[c]) / diagonal;
+                if (w != 1.0) {
+                    xNew = x[p] + w * (xNew - x[p]);
+                }
+                changes[c] += Math.abs(xNew - x[p]);
+                x[p] = xNew;
+            }
+        }
+        return max(changes);
+    }
+
+    protected static double max(double[] values) {
+        double largest = 0.0;
+        for (double value : values) {
+            largest = Math.max(largest, value);
+        }
+        return largest;
+    }
+
+    // For solvers without a block method: the columns of a block right-hand side are
+    // solved one after another. The iteration count is that of the slowest column.
+    protected Result solveColumns(LinearSystem system) {
+        long startTime = System.nanoTime();
+        Matrix B = system.getRightHandSides();
+        int k = B.getCols();
+        Matrix X = new Matrix(system.getSize(), k);
+        String first = null;
+        String message = null;
+        int iterations = 0;
+        double residual = 0.0;
+        for (int c = 0; c < k; c++) {
+            Result column = solve(system.withB(B.getColumn(c)));
+            if (column.getSolution() == null) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                return new Result(null, "Column " + (c + 1) + ": " + column.getMessage(), iterations, computationTime);
+            }
+            X.setColumn(c, column.getSolution());
+            iterations = Math.max(iterations, column.getIterations());
+            residual = Math.max(residual, column.getResidual());
+            // Report the first column that ended differently from the first one
+            if (c == 0) {
+                message = column.getMessage();
+                first = message;
+            } else if (message.equals(first) && !column.getMessage().equals(first)) {
+                message = "Column " + (c + 1) + ": " + column.getMessage();
+            }
+        }
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        return solutionResult(X.getData(), k, message, iterations, computationTime, residual);
+    }
 }
\ No newline at end of file
@@ -1,36 +1,237 @@
-package solver;
-
-public class LinearSystem {
-    private Matrix A;
-    private Vector b;
-    
-    public LinearSystem(Matrix A, Vector b) {
-        if (A.getRows() != b.getSize()) {
-            throw new IllegalArgumentException("Matrix A and vector b have incompatible dimensions");
-        }
-        this.A = A;
-        this.b = b;
-    }
-    
-    public Matrix getA() { return A; }
-    public Vector getB() { return b; }
-    public int getSize() { return A.getRows(); }
-    
-    public void setA(Matrix A) { this.A = A; }
-    public void setB(Vector b) { this.b = b; }
-    
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("System of ").append(getSize()).append(" equations:\n");
-        for (int i = 0; i < getSize(); i++) {
-            sb.append("Eq ").append(i + 1).append(": ");
-            for (int j = 0; j < A.getCols(); j++) {
-                sb.append(String.format("%6.2f*x%d", A.get(i, j), j + 1));
-                if (j < A.getCols() - 1) sb.append(" + ");
-            }
-            sb.append(String.format(" = %6.2f\n", b.get(i)));
-        }
-        return sb.toString();
-    }
+package solver;
+
+import java.util.Arrays;
+
+public class LinearSystem {
+    private Matrix A;
+    private SparseMatrix sparseA;
+    private OffHeapMatrix offHeapA;
+    private TiledMatrix tiledA;
+    private Vector b;
+    // Optional n x k block of right-hand sides; b is then its first column
+    private Matrix B;
+    
+    private LinearSystem() {
+    }
+    
+    public LinearSystem(Matrix A, Vector b) {
+        if (A.getRows() != b.getSize()) {
+            throw new IllegalArgumentException("Matrix A and vector b have incompatible dimensions");
+        }
+        this.A = A;
+        this.b = b;
+    }
+    
+    public LinearSystem(SparseMatrix A, Vector b) {
+        if (A.getRows() != b.getSize()) {
+            throw new IllegalArgumentException("Matrix A and vector b have incompatible dimensions");
+        }
+        this.sparseA = A;
+        this.b = b;
+    }
+    
+    // The system does not own the off-heap matrix; whoever allocated it closes it
+    public LinearSystem(OffHeapMatrix A, Vector b) {
+        if (A.getRows() != b.getSize()) {
+            throw new IllegalArgumentException("Matrix A and vector b have incompatible dimensions");
+        }
+        this.offHeapA = A;
+        this.b = b;
+    }
+    
+    // Out-of-core system; the tiled matrix is likewise closed by its owner
+    public LinearSystem(TiledMatrix A, Vector b) {
+        if (A.getRows() != b.getSize()) {
+            throw new IllegalArgumentException("Matrix A and vector b have incompatible dimensions");
+        }
+        this.tiledA = A;
+        this.b = b;
+    }
+    
+    // k load cases against the same matrix, one right-hand side per column of B
+    public LinearSystem(Matrix A, Matrix B) {
+        this(A, B.getColumn(0));
+        setRightHandSides(B);
+    }
+    
+    public LinearSystem(SparseMatrix A, Matrix B) {
+        this(A, B.getColumn(0));
+        setRightHandSides(B);
+    }
+    
+    // Same coefficient storage (shared, not copied) with a different right-hand side
+    public LinearSystem withB(Vector b) {
+        if (getSize() != b.getSize()) {
+            throw new IllegalArgumentException("Matrix A and vector b have incompatible dimensions");
+        }
+        LinearSystem result = new LinearSystem();
+        result.A = A;
+        result.sparseA = sparseA;
+        result.offHeapA = offHeapA;
+        result.tiledA = tiledA;
+        result.b = b;
+        return result;
+    }
+    
+    // The heap matrix of a dense heap system. Sparse, off-heap and tiled systems have none;
+    // read them through getRow or their own storage, or ask for toDenseCopy() explicitly
+    public Matrix getA() {
+        if (A == null) {
+            throw new IllegalStateException("System is not stored as a heap matrix; use getRow or toDenseCopy()");
+        }
+        return A;
+    }
+    
+    // A new heap copy of A on every call, whatever the storage; O(rows * cols) memory
+    public Matrix toDenseCopy() {
+        if (isSparse()) {
+            return sparseA.toDense();
+        } else if (isOffHeap()) {
+            return offHeapA.toMatrix();
+        }
+        return isTiled() ? tiledA.toMatrix() : A.copy();
+    }
+    
+    // Copies row i of A into target[targetOffset ..] from whichever storage the system holds
+    public void getRow(int i, double[] target, int targetOffset) {
+        int cols = getCols();
+        if (isSparse()) {
+            Arrays.fill(target, targetOffset, targetOffset + cols, 0.0);
+            int[] rowPtr = sparseA.getRowPointers();
+            int[] colIdx = sparseA.getColumnIndices();
+            double[] values = sparseA.getValues();
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                target[targetOffset + colIdx[k]] = values[k];
+            }
+        } else if (isOffHeap()) {
+            offHeapA.getRow(i, target, targetOffset);
+        } else if (isTiled()) {
+            tiledA.getRow(i, target, targetOffset);
+        } else {
+            System.arraycopy(A.getData(), A.getOffset() + i * A.getStride(), target, targetOffset, cols);
+        }
+    }
+    
+    public SparseMatrix getSparseA() { return sparseA; }
+    public boolean isSparse() { return sparseA != null; }
+    public OffHeapMatrix getOffHeapA() { return offHeapA; }
+    public boolean isOffHeap() { return offHeapA != null; }
+    public TiledMatrix getTiledA() { return tiledA; }
+    public boolean isTiled() { return tiledA != null; }
+    public Vector getB() { return b; }
+    
+    // The n x k block of right-hand sides; a single b is returned as an n x 1 matrix
+    public Matrix getRightHandSides() {
+        return B != null ? B : Matrix.wrap(b.getData(), b.getSize(), 1);
+    }
+    
+    public int getRightHandSideCount() {
+        return B != null ? B.getCols() : 1;
+    }
+    
+    public int getSize() {
+        if (isSparse()) {
+            return sparseA.getRows();
+        } else if (isOffHeap()) {
+            return offHeapA.getRows();
+        }
+        return isTiled() ? tiledA.getRows() : A.getRows();
+    }
+    
+    public int getCols() {
+        if (isSparse()) {
+            return sparseA.getCols();
+        } else if (isOffHeap()) {
+            return offHeapA.getCols();
+        }
+        return isTiled() ? tiledA.getCols() : A.getCols();
+    }
+    
+    public void setA(Matrix A) {
+        this.A = A;
+        this.sparseA = null;
+        this.offHeapA = null;
+        this.tiledA = null;
+    }
+    
+    public void setA(SparseMatrix A) {
+        this.sparseA = A;
+        this.A = null;
+        this.offHeapA = null;
+        this.tiledA = null;
+    }
+    
+    public void setA(OffHeapMatrix A) {
+        this.offHeapA = A;
+        this.A = null;
+        this.sparseA = null;
+        this.tiledA = null;
+    }
+    
+    public void setA(TiledMatrix A) {
+        this.tiledA = A;
+        this.A = null;
+        this.sparseA = null;
+        this.offHeapA = null;
+    }
+    
+    // Replaces any block of right-hand sides by the single vector b
+    public void setB(Vector b) {
+        this.b = b;
+        this.B = null;
+    }
+    
+    public void setRightHandSides(Matrix B) {
+        if (B.getRows() != getSize() || B.getCols() < 1) {
+            throw new IllegalArgumentException("Right-hand sides must be a matrix with " + getSize() + " rows and at least one column");
+        }
+        this.b = B.getColumn(0);
+        this.B = B;
+    }
+    
+    // A * x using whichever storage the system holds
+    public Vector multiply(Vector x) {
+        if (isSparse()) {
+            return sparseA.multiply(x);
+        } else if (isOffHeap()) {
+            return offHeapA.multiply(x);
+        }
+        return isTiled() ? tiledA.multiply(x) : A.multiply(x);
+    }
+    
+    public void multiplyInto(Vector x, Vector y) {
+        if (isSparse()) {
+            sparseA.multiplyInto(x, y);
+        } else if (isOffHeap()) {
+            offHeapA.multiplyInto(x, y);
+        } else if (isTiled()) {
+            tiledA.multiplyInto(x, y);
+        } else {
+            A.multiplyInto(x, y);
+        }
+    }
+    
+    public double coefficient(int i, int j) {
+        if (isSparse()) {
+            return sparseA.get(i, j);
+        } else if (isOffHeap()) {
+            return offHeapA.get(i, j);
+        }
+        return isTiled() ? tiledA.get(i, j) : A.get(i, j);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("System of ").append(getSize()).append(" equations:\n");
+        for (int i = 0; i < getSize(); i++) {
+            sb.append("Eq ").append(i + 1).append(": ");
+            for (int j = 0; j < getCols(); j++) {
+                sb.append(String.format("%6.2f*x%d", coefficient(i, j), j + 1));
+                if (j < getCols() - 1) sb.append(" + ");
+            }
+            sb.append(String.format(" = %6.2f\n", b.get(i)));
+        }
+        return sb.toString();
+    }
 }
\ No newline at end of file
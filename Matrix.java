@@ -1,117 +1,307 @@
-package solver;
-
-import java.util.Arrays;
-import java.util.Random;
-
-public class Matrix {
-    private double[][] data;
-    private int rows;
-    private int cols;
-
-    public Matrix(int rows, int cols) {
-        this.rows = rows;
-        this.cols = cols;
-        this.data = new double[rows][cols];
-    }
-
-    public Matrix(double[][] data) {
-        this.rows = data.length;
-        this.cols = data[0].length;
-        this.data = new double[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            System.arraycopy(data[i], 0, this.data[i], 0, cols);
-        }
-    }
-
-    public int getRows() { return rows; }
-    public int getCols() { return cols; }
-    public double get(int i, int j) { return data[i][j]; }
-    public void set(int i, int j, double value) { data[i][j] = value; }
-
-    public Matrix copy() {
-        return new Matrix(this.data);
-    }
-
-    public Matrix transpose() {
-        Matrix result = new Matrix(cols, rows);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result.set(j, i, data[i][j]);
-            }
-        }
-        return result;
-    }
-
-    public Matrix multiply(Matrix other) {
-        if (this.cols != other.rows) {
-            throw new IllegalArgumentException("Matrix dimensions don't match for multiplication");
-        }
-        Matrix result = new Matrix(this.rows, other.cols);
-        for (int i = 0; i < this.rows; i++) {
-            for (int j = 0; j < other.cols; j++) {
-                double sum = 0;
-                for (int k = 0; k < this.cols; k++) {
-                    sum += this.data[i][k] * other.data[k][j];
-                }
-                result.set(i, j, sum);
-            }
-        }
-        return result;
-    }
-
-    public Matrix add(Matrix other) {
-        if (this.rows != other.rows || this.cols != other.cols) {
-            throw new IllegalArgumentException("Matrix dimensions don't match for addition");
-        }
-        Matrix result = new Matrix(rows, cols);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result.set(i, j, this.data[i][j] + other.data[i][j]);
-            }
-        }
-        return result;
-    }
-
-    public static Matrix identity(int size) {
-        Matrix identity = new Matrix(size, size);
-        for (int i = 0; i < size; i++) {
-            identity.set(i, i, 1.0);
-        }
-        return identity;
-    }
-
-    public static Matrix random(int rows, int cols) {
-        Random rand = new Random();
-        Matrix randomMatrix = new Matrix(rows, cols);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                randomMatrix.set(i, j, rand.nextDouble() * 10 - 5);
-            }
-        }
-        return randomMatrix;
-    }
-
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < rows; i++) {
-            sb.append("[ ");
-            for (int j = 0; j < cols; j++) {
-                sb.append(String.format("%8.4f ", data[i][j]));
-            }
-            sb.append("]\n");
-        }
-        return sb.toString();
-    }
-
-    public String toCompactString() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                sb.append(String.format("%10.6f", data[i][j]));
-            }
-            sb.append("\n");
-        }
-        return sb.toString();
-    }
+package solver;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class Matrix {
+    // Row-major storage: element (i, j) lives at data[offset + i * stride + j]
+    private double[] data;
+    private int rows;
+    private int cols;
+    private int offset;
+    private int stride;
+
+    // Tuning for multiply(): below SMALL_MULTIPLY_WORK multiply-adds the plain loop wins,
+    // above PARALLEL_WORK the row blocks are spread over the common fork/join pool
+    private static final long SMALL_MULTIPLY_WORK = 32 * 32 * 32;
+    private static final long PARALLEL_WORK = 1 << 20;
+    private static final int BLOCK_K = 128;
+    private static final int BLOCK_J = 256;
+    private static final int MULTIPLY_ROWS_PER_TASK = 32;
+
+    public Matrix(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = cols;
+        this.offset = 0;
+        this.data = new double[rows * cols];
+    }
+
+    public Matrix(double[][] data) {
+        this(data.length, data[0].length);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data[i], 0, this.data, i * stride, cols);
+        }
+    }
+
+    protected Matrix(double[] data, int offset, int rows, int cols, int stride) {
+        if (stride < cols || (rows > 0 && offset + (rows - 1) * stride + cols > data.length)) {
+            throw new IllegalArgumentException("Backing array too small for a " + rows + "x" + cols + " matrix");
+        }
+        this.data = data;
+        this.offset = offset;
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = stride;
+    }
+
+    // Wraps an existing row-major array without copying it
+    public static Matrix wrap(double[] data, int rows, int cols) {
+        return new Matrix(data, 0, rows, cols, cols);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    public double get(int i, int j) {
+        return data[index(i, j)];
+    }
+
+    public void set(int i, int j, double value) {
+        data[index(i, j)] = value;
+    }
+
+    // Raw access for hot loops: element (i, j) is getData()[getOffset() + i * getStride() + j]
+    public double[] getData() { return data; }
+    public int getOffset() { return offset; }
+    public int getStride() { return stride; }
+
+    private int index(int i, int j) {
+        Objects.checkIndex(i, rows);
+        Objects.checkIndex(j, cols);
+        return offset + i * stride + j;
+    }
+
+    // Returns a view sharing storage with this matrix
+    public Matrix view(int rowStart, int colStart, int rows, int cols) {
+        Objects.checkFromIndexSize(rowStart, rows, this.rows);
+        Objects.checkFromIndexSize(colStart, cols, this.cols);
+        return new Matrix(data, offset + rowStart * stride + colStart, rows, cols, stride);
+    }
+
+    public Vector getColumn(int j) {
+        Objects.checkIndex(j, cols);
+        Vector column = new Vector(rows);
+        for (int i = 0; i < rows; i++) {
+            column.set(i, data[offset + i * stride + j]);
+        }
+        return column;
+    }
+
+    public void setColumn(int j, Vector column) {
+        Objects.checkIndex(j, cols);
+        if (column.getSize() != rows) {
+            throw new IllegalArgumentException("Column size doesn't match the matrix");
+        }
+        for (int i = 0; i < rows; i++) {
+            data[offset + i * stride + j] = column.get(i);
+        }
+    }
+
+    public boolean isContiguous() {
+        return stride == cols;
+    }
+
+    public void swapRows(int r1, int r2) {
+        Objects.checkIndex(r1, rows);
+        Objects.checkIndex(r2, rows);
+        if (r1 == r2) {
+            return;
+        }
+        int p = offset + r1 * stride;
+        int q = offset + r2 * stride;
+        for (int j = 0; j < cols; j++) {
+            double temp = data[p + j];
+            data[p + j] = data[q + j];
+            data[q + j] = temp;
+        }
+    }
+
+    public Matrix copy() {
+        Matrix result = new Matrix(rows, cols);
+        if (offset == 0 && isContiguous()) {
+            System.arraycopy(data, 0, result.data, 0, rows * cols);
+        } else {
+            for (int i = 0; i < rows; i++) {
+                System.arraycopy(data, offset + i * stride, result.data, i * cols, cols);
+            }
+        }
+        return result;
+    }
+
+    public Matrix transpose() {
+        final int block = 32;
+        Matrix result = new Matrix(cols, rows);
+        double[] out = result.data;
+        // Tiled so that both source rows and destination rows stay in cache
+        for (int ii = 0; ii < rows; ii += block) {
+            int iMax = Math.min(ii + block, rows);
+            for (int jj = 0; jj < cols; jj += block) {
+                int jMax = Math.min(jj + block, cols);
+                for (int i = ii; i < iMax; i++) {
+                    int src = offset + i * stride;
+                    for (int j = jj; j < jMax; j++) {
+                        out[j * rows + i] = data[src + j];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public Matrix multiply(Matrix other) {
+        if (this.cols != other.rows) {
+            throw new IllegalArgumentException("Matrix dimensions don't match for multiplication");
+        }
+        Matrix result = new Matrix(this.rows, other.cols);
+        long work = (long) this.rows * this.cols * other.cols;
+        if (work <= SMALL_MULTIPLY_WORK) {
+            multiplySmall(other, result);
+            return result;
+        }
+
+        double[] packed = other.packPanels();
+        int n = other.cols;
+        ParallelRows.RowKernel kernel = (start, end) -> multiplyRows(packed, n, result.data, start, end);
+        if (work < PARALLEL_WORK) {
+            kernel.apply(0, rows);
+        } else {
+            ParallelRows.forEach(ForkJoinPool.commonPool(), 0, rows, MULTIPLY_ROWS_PER_TASK, kernel);
+        }
+        return result;
+    }
+
+    // Plain i-k-j loop, cheaper than packing for tiny operands
+    private void multiplySmall(Matrix other, Matrix result) {
+        double[] b = other.data;
+        double[] c = result.data;
+        int n = other.cols;
+        for (int i = 0; i < rows; i++) {
+            int aRow = offset + i * stride;
+            int cRow = i * n;
+            for (int k = 0; k < cols; k++) {
+                Kernels.axpy(data[aRow + k], b, other.offset + k * other.stride, c, cRow, n);
+            }
+        }
+    }
+
+    // Repacks this matrix into BLOCK_K x BLOCK_J panels, each stored contiguously.
+    // Element (k, j) of panel (kk, jj) is at kk * cols + jj * kc + (k - kk) * nc + (j - jj).
+    private double[] packPanels() {
+        double[] packed = new double[rows * cols];
+        for (int kk = 0; kk < rows; kk += BLOCK_K) {
+            int kc = Math.min(BLOCK_K, rows - kk);
+            for (int jj = 0; jj < cols; jj += BLOCK_J) {
+                int nc = Math.min(BLOCK_J, cols - jj);
+                int panel = kk * cols + jj * kc;
+                for (int k = 0; k < kc; k++) {
+                    System.arraycopy(data, offset + (kk + k) * stride + jj, packed, panel + k * nc, nc);
+                }
+            }
+        }
+        return packed;
+    }
+
+    // C[start:end, :] = A[start:end, :] * B, with B given as packed panels.
+    // Each C element still accumulates its products in increasing k order.
+    private void multiplyRows(double[] packed, int n, double[] c, int start, int end) {
+        for (int kk = 0; kk < cols; kk += BLOCK_K) {
+            int kc = Math.min(BLOCK_K, cols - kk);
+            for (int jj = 0; jj < n; jj += BLOCK_J) {
+                int nc = Math.min(BLOCK_J, n - jj);
+                int panel = kk * n + jj * kc;
+                for (int i = start; i < end; i++) {
+                    int aRow = offset + i * stride + kk;
+                    int cRow = i * n + jj;
+                    for (int k = 0; k < kc; k++) {
+                        Kernels.axpy(data[aRow + k], packed, panel + k * nc, c, cRow, nc);
+                    }
+                }
+            }
+        }
+    }
+
+    public Vector multiply(Vector x) {
+        Vector result = new Vector(rows);
+        multiplyInto(x, result);
+        return result;
+    }
+
+    // Computes y = A * x into an existing vector
+    public void multiplyInto(Vector x, Vector y) {
+        if (cols != x.getSize() || rows != y.getSize()) {
+            throw new IllegalArgumentException("Matrix and vector dimensions don't match for multiplication");
+        }
+        double[] xs = x.getData();
+        double[] ys = y.getData();
+        ParallelRows.RowKernel kernel = (start, end) -> {
+            for (int i = start; i < end; i++) {
+                ys[i] = Kernels.dot(data, offset + i * stride, xs, 0, cols);
+            }
+        };
+        if ((long) rows * cols < PARALLEL_WORK) {
+            kernel.apply(0, rows);
+        } else {
+            ParallelRows.forEach(ForkJoinPool.commonPool(), 0, rows, Math.max(1, (int) (PARALLEL_WORK / 8 / cols)), kernel);
+        }
+    }
+
+    public Matrix add(Matrix other) {
+        if (this.rows != other.rows || this.cols != other.cols) {
+            throw new IllegalArgumentException("Matrix dimensions don't match for addition");
+        }
+        Matrix result = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            int p = this.offset + i * this.stride;
+            int q = other.offset + i * other.stride;
+            int r = i * cols;
+            for (int j = 0; j < cols; j++) {
+                result.data[r + j] = this.data[p + j] + other.data[q + j];
+            }
+        }
+        return result;
+    }
+
+    public static Matrix identity(int size) {
+        Matrix identity = new Matrix(size, size);
+        for (int i = 0; i < size; i++) {
+            identity.data[i * size + i] = 1.0;
+        }
+        return identity;
+    }
+
+    public static Matrix random(int rows, int cols) {
+        Random rand = new Random();
+        Matrix randomMatrix = new Matrix(rows, cols);
+        for (int i = 0; i < rows * cols; i++) {
+            randomMatrix.data[i] = rand.nextDouble() * 10 - 5;
+        }
+        return randomMatrix;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            sb.append("[ ");
+            for (int j = 0; j < cols; j++) {
+                sb.append(String.format("%8.4f ", get(i, j)));
+            }
+            sb.append("]\n");
+        }
+        return sb.toString();
+    }
+
+    public String toCompactString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                sb.append(String.format("%10.6f", get(i, j)));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,316 @@
+package solver;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Matrix Market (.mtx) reader and writer for real, integer and pattern matrices in
+// coordinate or array format. The file is streamed once into entry lists (only the
+// stored triangle of symmetric files, and only nonzeros of array files), which are
+// then bucketed by column and by row into CSR without any dense intermediate.
+final class MatrixMarket {
+    private static final String BANNER = "%%MatrixMarket";
+    // Largest entry list or CSR array a Java array can hold
+    private static final int MAX_ENTRIES = Integer.MAX_VALUE - 8;
+
+    private MatrixMarket() {
+    }
+
+    static SparseMatrix read(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0)
+                throw new IOException("Unexpected end of file");
+            long[] bounds = TextSystemParser.chunkBounds(channel, size);
+            Reader reader = new Reader();
+            long line = 1;
+            for (int c = 0; c + 1 < bounds.length; c++) {
+                AsciiTokenizer tokens = new AsciiTokenizer(TextSystemParser.map(channel, bounds[c], bounds[c + 1]), line);
+                while (tokens.hasMoreLines()) {
+                    reader.readLine(tokens);
+                    tokens.nextLine();
+                }
+                line = tokens.getLine();
+            }
+            return reader.finish();
+        }
+    }
+
+    // A vector is stored as an n x 1 (or 1 x n) matrix
+    static Vector readVector(String filename) throws IOException {
+        SparseMatrix A = read(filename);
+        if (A.getCols() != 1 && A.getRows() != 1)
+            throw new IOException("Expected a single row or column, found a " + A.getRows() + "x" + A.getCols() + " matrix");
+        Vector v = new Vector(A.getRows() * A.getCols());
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        for (int i = 0; i < A.getRows(); i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                v.set(i + colIdx[k], values[k]);
+            }
+        }
+        return v;
+    }
+
+    static void write(String filename, SparseMatrix A) throws IOException {
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+            writer.write(BANNER + " matrix coordinate real general\n");
+            writer.write(A.getRows() + " " + A.getCols() + " " + A.getNonZeros() + "\n");
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < A.getRows(); i++) {
+                for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                    line.setLength(0);
+                    line.append(i + 1).append(' ').append(colIdx[k] + 1).append(' ').append(values[k]).append('\n');
+                    writer.append(line);
+                }
+            }
+        }
+    }
+
+    static void write(String filename, Vector v) throws IOException {
+        double[] data = v.getData();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+            writer.write(BANNER + " matrix array real general\n");
+            writer.write(v.getSize() + " 1\n");
+            StringBuilder line = new StringBuilder();
+            for (double value : data) {
+                line.setLength(0);
+                line.append(value).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private boolean headerRead;
+        private boolean sizeRead;
+        private boolean coordinate;
+        private boolean pattern;
+        private boolean symmetric;
+        private boolean skew;
+        private int rows;
+        private int cols;
+        private long expected;
+        private long count;
+
+        // Array files walk the matrix column by column (only the lower triangle when symmetric)
+        private int arrayRow;
+        private int arrayCol;
+
+        private int[] entryRows;
+        private int[] entryCols;
+        private double[] entryValues;
+        private int entries;
+
+        void readLine(AsciiTokenizer tokens) throws IOException {
+            long line = tokens.getLine();
+            if (!headerRead) {
+                readHeader(tokens);
+                headerRead = true;
+                return;
+            }
+            if (!tokens.hasMoreTokens() || tokens.nextTokenStartsWith('%')) {
+                return;
+            }
+            if (!sizeRead) {
+                readSize(tokens);
+                sizeRead = true;
+                return;
+            }
+            if (count >= expected)
+                throw new IOException("Line " + line + ": more than the " + expected + " declared entries");
+            count++;
+
+            int i;
+            int j;
+            if (coordinate) {
+                i = index(tokens, rows);
+                j = index(tokens, cols);
+            } else {
+                i = arrayRow;
+                j = arrayCol;
+                arrayRow++;
+                if (arrayRow == rows) {
+                    arrayCol++;
+                    arrayRow = symmetric || skew ? arrayCol + (skew ? 1 : 0) : 0;
+                }
+            }
+            double value = pattern ? 1.0 : tokens.nextDouble();
+            if (tokens.hasMoreTokens())
+                throw new IOException("Line " + line + ": unexpected trailing values");
+            if (!coordinate && value == 0.0) {
+                return;
+            }
+            if (entries == MAX_ENTRIES)
+                throw new IOException("Line " + line + ": more than " + MAX_ENTRIES + " nonzeros");
+            add(i, j, value);
+        }
+
+        private void readHeader(AsciiTokenizer tokens) throws IOException {
+            if (!tokens.hasMoreTokens() || !BANNER.equals(tokens.nextWord()))
+                throw new IOException("Line 1: missing " + BANNER + " banner");
+            String object = tokens.nextWord().toLowerCase();
+            String format = tokens.nextWord().toLowerCase();
+            String field = tokens.nextWord().toLowerCase();
+            String symmetry = tokens.nextWord().toLowerCase();
+            if (!object.equals("matrix"))
+                throw new IOException("Line 1: unsupported object '" + object + "'");
+            if (!format.equals("coordinate") && !format.equals("array"))
+                throw new IOException("Line 1: unsupported format '" + format + "'");
+            if (!field.equals("real") && !field.equals("integer") && !field.equals("pattern"))
+                throw new IOException("Line 1: unsupported field '" + field + "'");
+            if (!symmetry.equals("general") && !symmetry.equals("symmetric") && !symmetry.equals("skew-symmetric"))
+                throw new IOException("Line 1: unsupported symmetry '" + symmetry + "'");
+            coordinate = format.equals("coordinate");
+            pattern = field.equals("pattern");
+            symmetric = symmetry.equals("symmetric");
+            skew = symmetry.equals("skew-symmetric");
+            if (pattern && !coordinate)
+                throw new IOException("Line 1: pattern matrices must use coordinate format");
+        }
+
+        private void readSize(AsciiTokenizer tokens) throws IOException {
+            long line = tokens.getLine();
+            long rowCount = tokens.nextLong();
+            long colCount = tokens.nextLong();
+            if (rowCount < 0 || colCount < 0 || rowCount > Integer.MAX_VALUE - 1 || colCount > Integer.MAX_VALUE - 1)
+                throw new IOException("Line " + line + ": invalid dimensions " + rowCount + "x" + colCount);
+            rows = (int) rowCount;
+            cols = (int) colCount;
+            if ((symmetric || skew) && rows != cols)
+                throw new IOException("Line " + line + ": symmetric matrix must be square");
+
+            int capacity;
+            if (coordinate) {
+                expected = tokens.nextLong();
+                if (expected < 0 || expected > MAX_ENTRIES)
+                    throw new IOException("Line " + line + ": invalid entry count " + expected);
+                capacity = (int) expected;
+            } else {
+                long n = rowCount;
+                expected = symmetric ? n * (n + 1) / 2 : skew ? n * (n - 1) / 2 : rowCount * colCount;
+                // Dense input; the entry lists grow with the nonzeros actually found
+                capacity = (int) Math.min(expected, 1 << 16);
+                arrayRow = skew ? 1 : 0;
+            }
+            if (tokens.hasMoreTokens())
+                throw new IOException("Line " + line + ": unexpected trailing values");
+            entryRows = new int[capacity];
+            entryCols = new int[capacity];
+            entryValues = new double[capacity];
+        }
+
+        private static int index(AsciiTokenizer tokens, int limit) throws IOException {
+            long line = tokens.getLine();
+            long index = tokens.nextLong();
+            if (index < 1 || index > limit)
+                throw new IOException("Line " + line + ": index " + index + " out of range 1.." + limit);
+            return (int) (index - 1);
+        }
+
+        private void add(int i, int j, double value) {
+            if (entries == entryRows.length) {
+                int capacity = (int) Math.min(MAX_ENTRIES, Math.max(16L, 2L * entries));
+                entryRows = Arrays.copyOf(entryRows, capacity);
+                entryCols = Arrays.copyOf(entryCols, capacity);
+                entryValues = Arrays.copyOf(entryValues, capacity);
+            }
+            entryRows[entries] = i;
+            entryCols[entries] = j;
+            entryValues[entries] = value;
+            entries++;
+        }
+
+        SparseMatrix finish() throws IOException {
+            if (!sizeRead)
+                throw new IOException("Unexpected end of file");
+            if (count < expected)
+                throw new IOException("Expected " + expected + " entries, found " + count);
+            boolean mirrored = symmetric || skew;
+
+            // Bucket by column; mirrored entries of symmetric storage are added here. The
+            // total is counted in a long since mirroring can double it past one array
+            int[] colPtr = new int[cols + 1];
+            long total = 0;
+            for (int t = 0; t < entries; t++) {
+                colPtr[entryCols[t] + 1]++;
+                total++;
+                if (mirrored && entryRows[t] != entryCols[t]) {
+                    colPtr[entryRows[t] + 1]++;
+                    total++;
+                }
+            }
+            if (total > MAX_ENTRIES)
+                throw new IOException("Expanding the stored triangle gives " + total + " entries, more than " + MAX_ENTRIES);
+            for (int j = 0; j < cols; j++) {
+                colPtr[j + 1] += colPtr[j];
+            }
+            int nnz = colPtr[cols];
+            int[] byColRow = new int[nnz];
+            double[] byColValue = new double[nnz];
+            int[] next = Arrays.copyOf(colPtr, cols);
+            for (int t = 0; t < entries; t++) {
+                int i = entryRows[t];
+                int j = entryCols[t];
+                int k = next[j]++;
+                byColRow[k] = i;
+                byColValue[k] = entryValues[t];
+                if (mirrored && i != j) {
+                    k = next[i]++;
+                    byColRow[k] = j;
+                    byColValue[k] = skew ? -entryValues[t] : entryValues[t];
+                }
+            }
+            entryRows = null;
+            entryCols = null;
+            entryValues = null;
+
+            // Bucket by row, visiting columns in order so each row comes out sorted
+            int[] rowPtr = new int[rows + 1];
+            for (int k = 0; k < nnz; k++) {
+                rowPtr[byColRow[k] + 1]++;
+            }
+            for (int i = 0; i < rows; i++) {
+                rowPtr[i + 1] += rowPtr[i];
+            }
+            int[] colIdx = new int[nnz];
+            double[] values = new double[nnz];
+            next = Arrays.copyOf(rowPtr, rows);
+            for (int j = 0; j < cols; j++) {
+                for (int k = colPtr[j]; k < colPtr[j + 1]; k++) {
+                    int p = next[byColRow[k]]++;
+                    colIdx[p] = j;
+                    values[p] = byColValue[k];
+                }
+            }
+
+            // Duplicate coordinates are now adjacent; sum them as assembled files expect
+            int write = 0;
+            int start = 0;
+            for (int i = 0; i < rows; i++) {
+                int end = rowPtr[i + 1];
+                rowPtr[i] = write;
+                for (int k = start; k < end; k++) {
+                    if (write > rowPtr[i] && colIdx[write - 1] == colIdx[k]) {
+                        values[write - 1] += values[k];
+                    } else {
+                        colIdx[write] = colIdx[k];
+                        values[write] = values[k];
+                        write++;
+                    }
+                }
+                start = end;
+            }
+            rowPtr[rows] = write;
+            return new SparseMatrix(rows, cols, rowPtr, colIdx, values);
+        }
+    }
+}
\ No newline at end of file
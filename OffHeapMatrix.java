@@ -0,0 +1,237 @@
+package solver;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+// Dense row-major matrix stored outside the Java heap in direct buffers, so that large
+// systems neither count against the heap nor get copied by the garbage collector.
+// Rows are packed into slabs of at most SLAB_BYTES, one direct buffer each.
+// The memory is released by close(); any later access throws IllegalStateException.
+// close() must not run while another thread is still using the matrix.
+public class OffHeapMatrix implements AutoCloseable {
+    private static final int SLAB_BYTES = 1 << 30;
+    private static final long PARALLEL_WORK = 1 << 20;
+
+    // sun.misc.Unsafe.invokeCleaner frees a direct buffer immediately; without it the
+    // memory is only returned once the buffer objects are garbage collected
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int rowsPerSlab;
+    private ByteBuffer[] memory;
+    private DoubleBuffer[] slabs;
+
+    public OffHeapMatrix(int rows, int cols) {
+        if (rows < 0 || cols < 0 || (long) cols * Double.BYTES > SLAB_BYTES) {
+            throw new IllegalArgumentException("Invalid off-heap matrix dimensions " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowsPerSlab = Math.max(1, SLAB_BYTES / Double.BYTES / Math.max(1, cols));
+        int slabCount = (rows + rowsPerSlab - 1) / rowsPerSlab;
+        memory = new ByteBuffer[slabCount];
+        slabs = new DoubleBuffer[slabCount];
+        try {
+            for (int s = 0; s < slabCount; s++) {
+                int slabRows = Math.min(rowsPerSlab, rows - s * rowsPerSlab);
+                // allocateDirect hands out zeroed memory
+                memory[s] = ByteBuffer.allocateDirect(slabRows * cols * Double.BYTES).order(ByteOrder.nativeOrder());
+                slabs[s] = memory[s].asDoubleBuffer();
+            }
+        } catch (OutOfMemoryError e) {
+            close();
+            throw e;
+        }
+    }
+
+    public static OffHeapMatrix fromMatrix(Matrix A) {
+        OffHeapMatrix result = new OffHeapMatrix(A.getRows(), A.getCols());
+        for (int i = 0; i < A.getRows(); i++) {
+            result.setRow(i, A.getData(), A.getOffset() + i * A.getStride());
+        }
+        return result;
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    public boolean isOpen() {
+        return slabs != null;
+    }
+
+    public double get(int i, int j) {
+        Objects.checkIndex(j, cols);
+        return slab(i).get(rowStart(i) + j);
+    }
+
+    public void set(int i, int j, double value) {
+        Objects.checkIndex(j, cols);
+        slab(i).put(rowStart(i) + j, value);
+    }
+
+    // Bulk copies of a whole row to and from the heap
+    public void getRow(int i, double[] target, int targetOffset) {
+        slab(i).get(rowStart(i), target, targetOffset, cols);
+    }
+
+    public void setRow(int i, double[] source, int sourceOffset) {
+        slab(i).put(rowStart(i), source, sourceOffset, cols);
+    }
+
+    public void swapRows(int r1, int r2) {
+        if (r1 == r2) {
+            slab(r1);
+            return;
+        }
+        double[] first = new double[cols];
+        double[] second = new double[cols];
+        getRow(r1, first, 0);
+        getRow(r2, second, 0);
+        setRow(r1, second, 0);
+        setRow(r2, first, 0);
+    }
+
+    // Off-heap copy; the heap only ever holds one row at a time
+    public OffHeapMatrix copy() {
+        OffHeapMatrix result = new OffHeapMatrix(rows, cols);
+        double[] row = new double[cols];
+        for (int i = 0; i < rows; i++) {
+            getRow(i, row, 0);
+            result.setRow(i, row, 0);
+        }
+        return result;
+    }
+
+    // Heap copy, for code that needs the raw array of a Matrix
+    public Matrix toMatrix() {
+        Matrix result = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            getRow(i, result.getData(), i * cols);
+        }
+        return result;
+    }
+
+    public Vector multiply(Vector x) {
+        Vector result = new Vector(rows);
+        multiplyInto(x, result);
+        return result;
+    }
+
+    public void multiplyInto(Vector x, Vector y) {
+        if (cols != x.getSize() || rows != y.getSize()) {
+            throw new IllegalArgumentException("Matrix and vector dimensions don't match for multiplication");
+        }
+        double[] xs = x.getData();
+        double[] ys = y.getData();
+        ParallelRows.RowKernel kernel = (start, end) -> {
+            for (int i = start; i < end; i++) {
+                ys[i] = dot(i, xs, 0, cols);
+            }
+        };
+        if ((long) rows * cols < PARALLEL_WORK) {
+            kernel.apply(0, rows);
+        } else {
+            ParallelRows.forEach(ForkJoinPool.commonPool(), 0, rows, Math.max(1, (int) (PARALLEL_WORK / 8 / Math.max(1, cols))), kernel);
+        }
+    }
+
+    // Sum of a[i][j] * x[j] over from <= j < to
+    double dot(int i, double[] x, int from, int to) {
+        DoubleBuffer slab = slab(i);
+        int base = rowStart(i);
+        double sum = 0.0;
+        for (int j = from; j < to; j++) {
+            sum += slab.get(base + j) * x[j];
+        }
+        return sum;
+    }
+
+    // Sum of a[i][j] * x[j] over all j != i, as in the row sweeps of the stationary solvers
+    double offDiagonalDot(int i, double[] x) {
+        DoubleBuffer slab = slab(i);
+        int base = rowStart(i);
+        double sum = 0.0;
+        for (int j = 0; j < cols; j++) {
+            if (j != i) {
+                sum += slab.get(base + j) * x[j];
+            }
+        }
+        return sum;
+    }
+
+    // a[i][j] -= factor * source[j] for from <= j < to
+    void subtractScaled(int i, double factor, double[] source, int from, int to) {
+        DoubleBuffer slab = slab(i);
+        int base = rowStart(i);
+        for (int j = from; j < to; j++) {
+            slab.put(base + j, slab.get(base + j) - factor * source[j]);
+        }
+    }
+
+    private DoubleBuffer slab(int i) {
+        DoubleBuffer[] current = slabs;
+        if (current == null) {
+            throw new IllegalStateException("Off-heap matrix has been closed");
+        }
+        Objects.checkIndex(i, rows);
+        return current[i / rowsPerSlab];
+    }
+
+    private int rowStart(int i) {
+        return (i % rowsPerSlab) * cols;
+    }
+
+    @Override
+    public void close() {
+        ByteBuffer[] buffers = memory;
+        slabs = null;
+        memory = null;
+        if (buffers == null) {
+            return;
+        }
+        for (ByteBuffer buffer : buffers) {
+            release(buffer);
+        }
+    }
+
+    // Frees a direct or mapped buffer now when possible; it must not be used afterwards
+    static void release(ByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // Left to the garbage collector
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OffHeapMatrix %dx%d%s", rows, cols, isOpen() ? "" : " (closed)");
+    }
+}
\ No newline at end of file
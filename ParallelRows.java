@@ -0,0 +1,63 @@
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Splits a half-open range of rows into chunks and runs them on a fork/join pool
+final class ParallelRows {
+
+    interface RowKernel {
+        void apply(int start, int end);
+    }
+
+    private ParallelRows() {
+    }
+
+    // A pool with the given parallelism for a solver to keep across solves: the common pool
+    // when its parallelism matches, current when it already fits, otherwise a new pool.
+    // A replaced pool is not shut down, since another solve may still be using it; its idle
+    // workers exit on their own.
+    static ForkJoinPool pool(ForkJoinPool current, int parallelism) {
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        if (current != null && current != ForkJoinPool.commonPool() && current.getParallelism() == parallelism) {
+            return current;
+        }
+        return new ForkJoinPool(parallelism);
+    }
+
+    static void forEach(ForkJoinPool pool, int start, int end, int grain, RowKernel kernel) {
+        if (end - start <= grain) {
+            kernel.apply(start, end);
+        } else {
+            pool.invoke(new RowTask(kernel, start, end, Math.max(1, grain)));
+        }
+    }
+
+    private static final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RowKernel kernel;
+        private final int start;
+        private final int end;
+        private final int grain;
+
+        RowTask(RowKernel kernel, int start, int end, int grain) {
+            this.kernel = kernel;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                kernel.apply(start, end);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new RowTask(kernel, start, mid, grain), new RowTask(kernel, mid, end, grain));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package solver;
+
+// Approximate inverse M^-1 of a coefficient matrix, applied once or twice per Krylov iteration.
+// Built once for a matrix (the build time is kept as setup time) and reusable across solves.
+public abstract class Preconditioner {
+    protected long setupTime;
+
+    // Computes z = M^-1 * r; r and z must be different vectors
+    public abstract void apply(Vector r, Vector z);
+
+    public abstract int getSize();
+
+    public long getSetupTime() {
+        return setupTime;
+    }
+}
\ No newline at end of file
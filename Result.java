@@ -1,55 +1,97 @@
-package solver;
-
-public class Result {
-    private Vector solution;
-    private String message;
-    private int iterations;
-    private long computationTime;
-    private double residual;
-    private double determinant;
-    private int rank;
-    
-    public Result(Vector solution, String message, int iterations, long computationTime) {
-        this(solution, message, iterations, computationTime, 0.0);
-    }
-    
-    public Result(Vector solution, String message, int iterations, long computationTime, double residual) {
-        this.solution = solution;
-        this.message = message;
-        this.iterations = iterations;
-        this.computationTime = computationTime;
-        this.residual = residual;
-    }
-    
-    // Getters
-    public Vector getSolution() { return solution; }
-    public String getMessage() { return message; }
-    public int getIterations() { return iterations; }
-    public long getComputationTime() { return computationTime; }
-    public double getResidual() { return residual; }
-    public double getDeterminant() { return determinant; }
-    public int getRank() { return rank; }
-    
-    // Setters
-    public void setDeterminant(double determinant) { this.determinant = determinant; }
-    public void setRank(int rank) { this.rank = rank; }
-    
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Result: ").append(message).append("\n");
-        if (solution != null) {
-            sb.append("Solution: ").append(solution.toString()).append("\n");
-            sb.append(String.format("Residual norm: %.6e\n", residual));
-        }
-        sb.append("Iterations: ").append(iterations).append("\n");
-        sb.append("Computation time: ").append(computationTime).append(" ms\n");
-        if (determinant != 0) {
-            sb.append(String.format("Determinant: %.6f\n", determinant));
-        }
-        if (rank != 0) {
-            sb.append("Matrix rank: ").append(rank).append("\n");
-        }
-        return sb.toString();
-    }
+package solver;
+
+public class Result {
+    private Vector solution;
+    private String message;
+    private int iterations;
+    private long computationTime;
+    private double residual;
+    private double determinant;
+    private int rank;
+    private double[] residualHistory;
+    private long setupTime;
+    private double relaxationFactor;
+    private long bytesRead;
+    private long bytesWritten;
+    private Matrix solutions;
+    private String solverSelection;
+    
+    public Result(Vector solution, String message, int iterations, long computationTime) {
+        this(solution, message, iterations, computationTime, 0.0);
+    }
+    
+    public Result(Vector solution, String message, int iterations, long computationTime, double residual) {
+        this.solution = solution;
+        this.message = message;
+        this.iterations = iterations;
+        this.computationTime = computationTime;
+        this.residual = residual;
+    }
+    
+    // Getters
+    public Vector getSolution() { return solution; }
+    public String getMessage() { return message; }
+    public int getIterations() { return iterations; }
+    public long getComputationTime() { return computationTime; }
+    public double getResidual() { return residual; }
+    public double getDeterminant() { return determinant; }
+    public int getRank() { return rank; }
+    public double[] getResidualHistory() { return residualHistory; }
+    public long getSetupTime() { return setupTime; }
+    public double getRelaxationFactor() { return relaxationFactor; }
+    public long getBytesRead() { return bytesRead; }
+    public long getBytesWritten() { return bytesWritten; }
+    // n x k solution block for systems with several right-hand sides; getSolution() is its first column
+    public Matrix getSolutions() { return solutions; }
+    // Why AutoSolver picked the solver that produced this result, one line per step
+    public String getSolverSelection() { return solverSelection; }
+    
+    // Setters
+    public void setDeterminant(double determinant) { this.determinant = determinant; }
+    public void setRank(int rank) { this.rank = rank; }
+    public void setResidualHistory(double[] residualHistory) { this.residualHistory = residualHistory; }
+    public void setSetupTime(long setupTime) { this.setupTime = setupTime; }
+    public void setRelaxationFactor(double relaxationFactor) { this.relaxationFactor = relaxationFactor; }
+    public void setBytesRead(long bytesRead) { this.bytesRead = bytesRead; }
+    public void setBytesWritten(long bytesWritten) { this.bytesWritten = bytesWritten; }
+    public void setSolutions(Matrix solutions) { this.solutions = solutions; }
+    public void setSolverSelection(String solverSelection) { this.solverSelection = solverSelection; }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Result: ").append(message).append("\n");
+        if (solution != null) {
+            sb.append("Solution: ").append(solution.toString()).append("\n");
+            sb.append(String.format("Residual norm: %.6e\n", residual));
+        }
+        if (solutions != null) {
+            sb.append("Right-hand sides: ").append(solutions.getCols()).append(" (largest residual shown)\n");
+        }
+        sb.append("Iterations: ").append(iterations).append("\n");
+        sb.append("Computation time: ").append(computationTime).append(" ms\n");
+        if (setupTime != 0) {
+            sb.append("Setup time: ").append(setupTime).append(" ms\n");
+        }
+        if (determinant != 0) {
+            sb.append(String.format("Determinant: %.6f\n", determinant));
+        }
+        if (rank != 0) {
+            sb.append("Matrix rank: ").append(rank).append("\n");
+        }
+        if (relaxationFactor != 0) {
+            sb.append(String.format("Relaxation factor: %.4f\n", relaxationFactor));
+        }
+        if (bytesRead != 0 || bytesWritten != 0) {
+            sb.append(String.format("Disk I/O: %.1f MB read, %.1f MB written\n", bytesRead / 1048576.0, bytesWritten / 1048576.0));
+        }
+        if (residualHistory != null && residualHistory.length > 0) {
+            sb.append(String.format("Residual history: %d entries, %.6e -> %.6e\n",
+                    residualHistory.length, residualHistory[0], residualHistory[residualHistory.length - 1]));
+        }
+        if (solverSelection != null) {
+            sb.append("Solver selection:\n  ").append(solverSelection.replace("\n", "\n  ")).append("\n");
+        }
+        return sb.toString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package solver;
+
+// Successive over-relaxation. In adaptive mode the relaxation factor starts at the
+// configured value (by default 1, which is plain Gauss-Seidel) and is re-estimated from
+// the observed contraction rate of the updates. For an SOR factor w and contraction rate
+// r, the Jacobi spectral radius satisfies mu^2 = (r + w - 1)^2 / (r * w^2), and the
+// optimal factor is 2 / (1 + sqrt(1 - mu^2)).
+public class SORSolver extends LinearSolver {
+    private static final double MAX_OMEGA = 1.99;
+    private static final int TUNING_INTERVAL = 16;
+    private static final int STABLE_SWEEPS = 5;
+    private static final double STABLE_RATE = 0.05;
+
+    private double omega = 1.0;
+    private boolean adaptive = false;
+
+    public void setOmega(double omega) {
+        if (omega <= 0.0 || omega >= 2.0) {
+            throw new IllegalArgumentException("Relaxation factor must be in (0, 2)");
+        }
+        this.omega = omega;
+    }
+
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    @Override
+    public Result solve(LinearSystem system) {
+        return solve(system, null);
+    }
+
+    @Override
+    public Result solve(LinearSystem system, Vector initialGuess) {
+        long startTime = System.nanoTime();
+        validateSystem(system);
+        checkInitialGuess(system, initialGuess);
+
+        int n = system.getSize();
+        // With k right-hand sides x holds k unknowns per row and all columns iterate together
+        int k = system.getRightHandSideCount();
+        double[] b = rightHandSides(system);
+        double[] x = initialIterate(initialGuess, n, k);
+        double w = omega;
+
+        int iterations = 0;
+        double error;
+        double previousError = Double.NaN;
+        double previousRate = Double.NaN;
+        int sinceTuning = 0;
+        int stableSweeps = 0;
+
+        do {
+            if (k > 1) {
+                error = relaxBlock(system, b, x, k, w);
+            } else if (system.isSparse()) {
+                error = sweep(system.getSparseA(), b, x, w);
+            } else if (system.isOffHeap()) {
+                error = sweep(system.getOffHeapA(), b, x, w);
+            } else if (system.isTiled()) {
+                error = sweep(system.getTiledA(), b, x, w);
+            } else {
+                error = sweep(system.getA(), b, x, w);
+            }
+
+            iterations++;
+            sinceTuning++;
+
+            if (adaptive && previousError > 0.0) {
+                double rate = error / previousError;
+                // Only trust the rate once it has settled relative to how fast it converges
+                stableSweeps = Math.abs(rate - previousRate) < STABLE_RATE * (1.0 - rate) ? stableSweeps + 1 : 0;
+                // A rate at or below w - 1 means w is already past the optimum
+                if (stableSweeps >= STABLE_SWEEPS && sinceTuning >= TUNING_INTERVAL && rate < 1.0 && rate > w - 1.0) {
+                    double tuned = optimalOmega(rate, w);
+                    // Estimates from below the optimum are reliable, so only move w upwards
+                    if (tuned > w) {
+                        w = tuned;
+                        sinceTuning = 0;
+                        stableSweeps = 0;
+                    }
+                }
+                previousRate = rate;
+            }
+            previousError = error;
+
+            String stop = stopReason(iterations > maxIterations);
+            if (stop != null) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                Result result = solutionResult(x, k, stop, iterations, computationTime, error);
+                result.setRelaxationFactor(w);
+                return result;
+            }
+        } while (error > tolerance);
+
+        long computationTime = (System.nanoTime() - startTime) / 1000000;
+        double residual = calculateResidual(system, x, k);
+        Result result = solutionResult(x, k, "Converged", iterations, computationTime, residual);
+        result.setRelaxationFactor(w);
+        return result;
+    }
+
+    private static double optimalOmega(double rate, double w) {
+        double muSquared = (rate + w - 1.0) * (rate + w - 1.0) / (rate * w * w);
+        if (!(muSquared < 1.0)) {
+            return MAX_OMEGA;
+        }
+        return Math.min(MAX_OMEGA, 2.0 / (1.0 + Math.sqrt(1.0 - muSquared)));
+    }
+
+    // Updates x in place and returns the sum of absolute changes
+    private double sweep(Matrix A, double[] b, double[] x, double w) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        int offset = A.getOffset();
+        int lda = A.getStride();
+        double error = 0.0;
+        for (int i = 0; i < n; i++) {
+            int row = offset + i * lda;
+            double sum = Kernels.dotExcept(a, row, x, n, i);
+            double xNew = x[i] + w * ((b[i] - sum) / a[row + i] - x[i]);
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+
+    private double sweep(OffHeapMatrix A, double[] b, double[] x, double w) {
+        double error = 0.0;
+        for (int i = 0; i < A.getRows(); i++) {
+            double xNew = x[i] + w * ((b[i] - A.offDiagonalDot(i, x)) / A.get(i, i) - x[i]);
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+
+    // Rows come through the tile cache into one row buffer
+    private double sweep(TiledMatrix A, double[] b, double[] x, double w) {
+        int n = A.getRows();
+        double[] row = new double[n];
+        double error = 0.0;
+        for (int i = 0; i < n; i++) {
+            A.getRow(i, row, 0);
+            double sum = Kernels.dotExcept(row, 0, x, n, i);
+            double xNew = x[i] + w * ((b[i] - sum) / row[i] - x[i]);
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+
+    private double sweep(SparseMatrix A, double[] b, double[] x, double w) {
+        int n = A.getRows();
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        double[] diagonal = A.getDiagonal();
+        double error = 0.0;
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                int j = colIdx[k];
+                if (j != i) {
+                    sum += values[k] * x[j];
+                }
+            }
+            double xNew = x[i] + w * ((b[i] - sum) / diagonal[i] - x[i]);
+            error += Math.abs(xNew - x[i]);
+            x[i] = xNew;
+        }
+        return error;
+    }
+}
\ No newline at end of file
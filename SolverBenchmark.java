@@ -0,0 +1,273 @@
+package solver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+// Repeatable micro-benchmarks for the matrix kernels and solvers.
+//
+//   java solver.SolverBenchmark [--sizes 10,100,1000] [--densities 1.0,0.01]
+//        [--conditions 1,1000] [--warmup 3] [--iterations 5] [--time 200]
+//        [--filter multiply] [--out results.csv] [--baseline old.csv] [--threshold 0.10]
+//
+// Every benchmark is warmed up, then measured in several timed rounds of repeated calls.
+// Each result line gives the best and mean time per call and the bytes allocated per call
+// by the calling thread (work done on fork/join workers is not included in that figure).
+// With --baseline, entries more than --threshold slower than the baseline are flagged and
+// the exit code is 1, so the tool can gate a build.
+// The kernel implementation in use (see Kernels) is printed first; run once with
+// -Dsolver.kernels=scalar and once with --add-modules jdk.incubator.vector to compare.
+public class SolverBenchmark {
+    private static volatile double sink;
+
+    private interface Operation {
+        double run() throws Exception;
+    }
+
+    private int[] sizes = {10, 100, 1000};
+    private double[] densities = {1.0};
+    private double[] conditions = {1.0};
+    private int warmup = 3;
+    private int rounds = 5;
+    private long roundMillis = 200;
+    private String filter = "";
+    private final List<String> results = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        SolverBenchmark benchmark = new SolverBenchmark();
+        String out = null;
+        String baseline = null;
+        double threshold = 0.10;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--sizes": benchmark.sizes = parseInts(value); break;
+                case "--densities": benchmark.densities = parseDoubles(value); break;
+                case "--conditions": benchmark.conditions = parseDoubles(value); break;
+                case "--warmup": benchmark.warmup = Integer.parseInt(value); break;
+                case "--iterations": benchmark.rounds = Integer.parseInt(value); break;
+                case "--time": benchmark.roundMillis = Long.parseLong(value); break;
+                case "--filter": benchmark.filter = value; break;
+                case "--out": out = value; break;
+                case "--baseline": baseline = value; break;
+                case "--threshold": threshold = Double.parseDouble(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        System.out.println("# kernels: " + Kernels.name());
+        System.out.println("benchmark,size,density,condition,best_ns_per_op,mean_ns_per_op,bytes_per_op");
+        benchmark.runAll();
+
+        if (out != null) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(out))) {
+                for (String line : benchmark.results) {
+                    writer.write(line + "\n");
+                }
+            }
+        }
+        if (baseline != null && benchmark.compare(baseline, threshold) > 0) {
+            System.exit(1);
+        }
+    }
+
+    private void runAll() throws Exception {
+        for (int n : sizes) {
+            Vector u = randomVector(n, 1);
+            Vector v = randomVector(n, 2);
+            bench("vector.dotProduct", n, 1.0, 1.0, () -> u.dotProduct(v));
+            bench("vector.norm", n, 1.0, 1.0, u::norm);
+            // axpy updates in place, so it gets its own copy and u stays the same for later cases
+            Vector y = u.copy();
+            bench("vector.axpy", n, 1.0, 1.0, () -> y.axpy(1e-9, v).get(0));
+
+            Matrix square = Matrix.random(n, n);
+            bench("matrix.multiply", n, 1.0, 1.0, () -> square.multiply(square).get(0, 0));
+            bench("matrix.multiplyVector", n, 1.0, 1.0, () -> square.multiply(u).get(0));
+            bench("validator.determinant", n, 1.0, 1.0, () -> Validator.calculateDeterminant(square));
+
+            for (double density : densities) {
+                for (double condition : conditions) {
+                    LinearSystem system = randomSystem(n, density, condition, 42);
+                    runSolvers(system, n, density, condition);
+                }
+            }
+
+            if (matches("file.readSystem")) {
+                File file = File.createTempFile("benchmark", ".txt");
+                file.deleteOnExit();
+                FileHandler.writeSystemToFile(file.getPath(), randomSystem(n, 1.0, 1.0, 7));
+                bench("file.readSystem", n, 1.0, 1.0, () -> FileHandler.readSystemFromFile(file.getPath()).getB().get(0));
+                file.delete();
+            }
+        }
+    }
+
+    private void runSolvers(LinearSystem system, int n, double density, double condition) throws Exception {
+        GaussSolver pivoting = new GaussSolver();
+        GaussSolver plain = new GaussSolver();
+        plain.setPartialPivoting(false);
+        JacobiSolver jacobi = new JacobiSolver();
+        GaussSeidelSolver gaussSeidel = new GaussSeidelSolver();
+
+        bench("gauss.pivoting", n, density, condition, () -> residual(pivoting.solve(system)));
+        bench("gauss.noPivoting", n, density, condition, () -> residual(plain.solve(system)));
+        // Every call after the first reuses the factors; this measures hashing plus substitution
+        GaussSolver cached = new GaussSolver();
+        cached.setFactorizationCache(new FactorizationCache(1L << 30, FactorizationCache.Policy.LRU));
+        bench("gauss.cached", n, density, condition, () -> residual(cached.solve(system)));
+        bench("jacobi", n, density, condition, () -> residual(jacobi.solve(system)));
+        bench("gaussSeidel", n, density, condition, () -> residual(gaussSeidel.solve(system)));
+
+        if (density < 1.0) {
+            LinearSystem sparse = new LinearSystem(SparseMatrix.fromDense(system.getA()), system.getB());
+            bench("jacobi.sparse", n, density, condition, () -> residual(jacobi.solve(sparse)));
+            bench("gaussSeidel.sparse", n, density, condition, () -> residual(gaussSeidel.solve(sparse)));
+        }
+    }
+
+    private static double residual(Result result) {
+        return result.getResidual();
+    }
+
+    private void bench(String name, int n, double density, double condition, Operation operation) throws Exception {
+        if (!matches(name)) {
+            return;
+        }
+        for (int i = 0; i < warmup; i++) {
+            measureRound(operation);
+        }
+        double best = Double.MAX_VALUE;
+        double total = 0.0;
+        double bytes = 0.0;
+        for (int i = 0; i < rounds; i++) {
+            double[] round = measureRound(operation);
+            best = Math.min(best, round[0]);
+            total += round[0];
+            bytes = round[1];
+        }
+        String line = String.format(Locale.ROOT, "%s,%d,%s,%s,%.1f,%.1f,%.0f",
+                name, n, density, condition, best, total / Math.max(rounds, 1), bytes);
+        results.add(line);
+        System.out.println(line);
+    }
+
+    // Returns {nanoseconds per call, bytes allocated per call} for one timed round
+    private double[] measureRound(Operation operation) throws Exception {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + roundMillis * 1000000;
+        long calls = 0;
+        double accumulator = 0.0;
+        do {
+            accumulator += operation.run();
+            calls++;
+        } while (System.nanoTime() < deadline);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        sink = accumulator;
+        return new double[] {(double) elapsed / calls, allocatedBefore < 0 ? -1 : (double) allocated / calls};
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(String name) {
+        return filter.isEmpty() || name.contains(filter);
+    }
+
+    // Reports entries whose best time regressed by more than the threshold; returns their count
+    private int compare(String baselineFile, double threshold) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(baselineFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length >= 5) {
+                    baseline.put(key(fields), Double.parseDouble(fields[4]));
+                }
+            }
+        }
+        int regressions = 0;
+        for (String line : results) {
+            String[] fields = line.split(",");
+            Double before = baseline.get(key(fields));
+            double now = Double.parseDouble(fields[4]);
+            if (before != null && now > before * (1.0 + threshold)) {
+                System.out.printf(Locale.ROOT, "REGRESSION %s: %.1f -> %.1f ns/op (+%.1f%%)%n",
+                        key(fields), before, now, 100.0 * (now / before - 1.0));
+                regressions++;
+            }
+        }
+        return regressions;
+    }
+
+    private static String key(String[] fields) {
+        return fields[0] + "," + fields[1] + "," + fields[2] + "," + fields[3];
+    }
+
+    // Random system with the requested fraction of off-diagonal nonzeros. The condition knob
+    // shrinks the diagonal-dominance margin: the diagonal is (1 + 1 / condition) times the
+    // off-diagonal row sum, so larger values make the iterative methods work harder.
+    static LinearSystem randomSystem(int n, double density, double condition, long seed) {
+        Random rand = new Random(seed);
+        Matrix A = new Matrix(n, n);
+        double[] a = A.getData();
+        for (int i = 0; i < n; i++) {
+            double rowSum = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j != i && rand.nextDouble() < density) {
+                    a[i * n + j] = rand.nextDouble() * 2 - 1;
+                    rowSum += Math.abs(a[i * n + j]);
+                }
+            }
+            a[i * n + i] = rowSum == 0.0 ? 1.0 : rowSum * (1.0 + 1.0 / condition);
+        }
+        return new LinearSystem(A, randomVector(n, seed + 1));
+    }
+
+    private static Vector randomVector(int n, long seed) {
+        Random rand = new Random(seed);
+        Vector v = new Vector(n);
+        for (int i = 0; i < n; i++) {
+            v.set(i, rand.nextDouble() * 2 - 1);
+        }
+        return v;
+    }
+
+    private static int[] parseInts(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+
+    private static double[] parseDoubles(String list) {
+        String[] parts = list.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i].trim());
+        }
+        return values;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,263 @@
+package solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Solves batches of independent systems with one shared solver on a bounded set of
+// worker threads. The batch is pulled from its source lazily: at most maxInFlight
+// systems are queued, running, or solved but not yet delivered, and the caller blocks
+// (delivering results) before it pulls more, so a slow consumer or a huge stream never
+// piles up work in memory. Results are delivered on the calling thread, either in input
+// order or as soon as each one is done.
+//
+// With a timeout, a solve that overruns it is reported as a Result with a null solution
+// and its thread is interrupted; the iterative solvers check for that and stop, direct
+// solvers run to completion but their result is discarded. Exceptions thrown by the
+// solver (e.g. for a non-square system) become failed Results rather than ending the batch.
+public class SolverService implements AutoCloseable {
+    private static final AtomicInteger SERVICES = new AtomicInteger();
+
+    // Receives each result with the position of its system in the input
+    public interface ResultListener {
+        void onResult(int index, Result result);
+    }
+
+    private final LinearSolver solver;
+    private final ExecutorService workers;
+    private final ScheduledThreadPoolExecutor timer;
+    private final int maxInFlight;
+    private final boolean virtualThreads;
+    private volatile long timeoutMillis;
+
+    public SolverService(LinearSolver solver, int threads) {
+        this(solver, threads, 4 * threads);
+    }
+
+    public SolverService(LinearSolver solver, int threads, int maxInFlight) {
+        this(solver, Executors.newFixedThreadPool(checkThreads(threads), daemonThreads("solver-service")), maxInFlight, false);
+    }
+
+    private SolverService(LinearSolver solver, ExecutorService workers, int maxInFlight, boolean virtualThreads) {
+        if (maxInFlight < 1) {
+            workers.shutdown();
+            throw new IllegalArgumentException("At least one system must be allowed in flight");
+        }
+        this.solver = Objects.requireNonNull(solver);
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.virtualThreads = virtualThreads;
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("solver-service-timer"));
+        // Most solves finish well before their timeout; drop those timers straight away
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    // One virtual thread per solve, limited only by maxInFlight. Virtual threads need
+    // Java 21; on older runtimes this falls back to maxInFlight platform threads.
+    public static SolverService withVirtualThreads(LinearSolver solver, int maxInFlight) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new SolverService(solver, executor, maxInFlight, true);
+        } catch (ReflectiveOperationException e) {
+            return new SolverService(solver, maxInFlight, maxInFlight);
+        }
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    // Wall-clock limit per system in milliseconds, 0 for none; counted from when the
+    // system's solve starts, so time spent waiting behind other systems does not count
+    public void setTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Results in the order of the input
+    public List<Result> solveAll(Collection<LinearSystem> systems) {
+        List<Result> results = new ArrayList<>(systems.size());
+        solveAll(systems.iterator(), true, (index, result) -> results.add(result));
+        return results;
+    }
+
+    public void solveAll(Stream<LinearSystem> systems, boolean ordered, ResultListener listener) {
+        solveAll(systems.iterator(), ordered, listener);
+    }
+
+    public void solveAll(Iterator<LinearSystem> systems, boolean ordered, ResultListener listener) {
+        ArrayDeque<Job> pending = new ArrayDeque<>();
+        BlockingQueue<Job> done = new LinkedBlockingQueue<>();
+        int index = 0;
+        try {
+            while (systems.hasNext()) {
+                if (pending.size() == maxInFlight) {
+                    deliverNext(pending, done, ordered, listener);
+                }
+                Job job = new Job(index++, systems.next());
+                if (!ordered) {
+                    job.result.whenComplete((result, error) -> done.add(job));
+                }
+                pending.add(job);
+                job.start();
+            }
+            while (!pending.isEmpty()) {
+                deliverNext(pending, done, ordered, listener);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for results", e);
+        } finally {
+            // Only reached with jobs left if the listener or the source threw
+            for (Job job : pending) {
+                job.cancel();
+            }
+        }
+    }
+
+    // Waits for the oldest job (ordered) or any finished job, and hands its result over
+    private static void deliverNext(ArrayDeque<Job> pending, BlockingQueue<Job> done, boolean ordered,
+                                    ResultListener listener) throws InterruptedException {
+        Job job;
+        if (ordered) {
+            job = pending.removeFirst();
+        } else {
+            job = done.take();
+            pending.remove(job);
+        }
+        Result result;
+        try {
+            result = job.result.join();
+        } catch (CompletionException e) {
+            // Errors such as OutOfMemoryError are not turned into results
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        listener.onResult(job.index, result);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private static int checkThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        return threads;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        int service = SERVICES.incrementAndGet();
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + service + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Job implements Runnable {
+        final int index;
+        final LinearSystem system;
+        final CompletableFuture<Result> result = new CompletableFuture<>();
+        private long startTime;
+        private Thread runner;
+        private ScheduledFuture<?> deadline;
+
+        Job(int index, LinearSystem system) {
+            this.index = index;
+            this.system = system;
+        }
+
+        void start() {
+            workers.execute(this);
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (result.isDone()) {
+                    // Cancelled while still queued
+                    return;
+                }
+                runner = Thread.currentThread();
+                // The clock starts when the solve does, not while the job waits in the queue
+                startTime = System.nanoTime();
+                long timeout = timeoutMillis;
+                if (timeout > 0) {
+                    deadline = timer.schedule(() -> timeOut(timeout), timeout, TimeUnit.MILLISECONDS);
+                }
+            }
+            try {
+                result.complete(solver.solve(system));
+            } catch (RuntimeException e) {
+                long computationTime = (System.nanoTime() - startTime) / 1000000;
+                result.complete(new Result(null, "Failed: " + e.getMessage(), 0, computationTime));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                // A timeout may have interrupted this thread just as the solve finished;
+                // the interrupt must not leak into the next job on the same worker
+                Thread.interrupted();
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+            }
+        }
+
+        private void timeOut(long timeout) {
+            if (result.complete(new Result(null, "Timed out after " + timeout + " ms", 0, timeout))) {
+                interruptRunner();
+            }
+        }
+
+        void cancel() {
+            if (result.complete(new Result(null, "Cancelled", 0, 0))) {
+                interruptRunner();
+            }
+            ScheduledFuture<?> scheduled;
+            synchronized (this) {
+                scheduled = deadline;
+            }
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        private synchronized void interruptRunner() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
\ No newline at end of file
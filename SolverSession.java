@@ -0,0 +1,67 @@
+package solver;
+
+// Re-solves a sequence of closely related systems, such as the steps of a time-stepping
+// loop, warm-starting every iterative solve from the previous solution. After a small
+// change to A or b the previous solution is already close, so only a few sweeps are
+// needed instead of a full solve from zero. Direct solvers are unaffected.
+//
+// The session keeps its own copy of the last solution, so callers may modify the vectors
+// of returned Results freely. It is meant for one thread at a time.
+public class SolverSession {
+    private final LinearSolver solver;
+    private double[] lastSolution;
+    private Result lastResult;
+    private int solves;
+    private long totalIterations;
+
+    public SolverSession(LinearSolver solver) {
+        if (solver == null) {
+            throw new IllegalArgumentException("Solver must not be null");
+        }
+        this.solver = solver;
+    }
+
+    public Result solve(LinearSystem system) {
+        Vector guess = null;
+        if (lastSolution != null && lastSolution.length == system.getCols() && system.getRightHandSideCount() == 1) {
+            guess = Vector.wrap(lastSolution);
+        }
+        Result result = solver.solve(system, guess);
+        Vector solution = result.getSolution();
+        // A diverged iterate would be a worse start than zero
+        if (solution != null && system.getRightHandSideCount() == 1 && isFinite(solution.getData())) {
+            if (lastSolution == null || lastSolution.length != solution.getSize()) {
+                lastSolution = new double[solution.getSize()];
+            }
+            System.arraycopy(solution.getData(), 0, lastSolution, 0, lastSolution.length);
+        }
+        lastResult = result;
+        solves++;
+        totalIterations += result.getIterations();
+        return result;
+    }
+
+    // Forgets the previous solution; the next solve starts from zero again
+    public void reset() {
+        lastSolution = null;
+        lastResult = null;
+    }
+
+    public Vector getLastSolution() {
+        return lastSolution != null ? new Vector(lastSolution) : null;
+    }
+
+    public Result getLastResult() { return lastResult; }
+    public int getSolveCount() { return solves; }
+    public long getTotalIterations() { return totalIterations; }
+    public LinearSolver getSolver() { return solver; }
+
+    private static boolean isFinite(double[] values) {
+        for (double value : values) {
+            if (!Double.isFinite(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+// Compressed sparse row (CSR) matrix: the nonzeros of row i are
+// values[rowPtr[i] .. rowPtr[i + 1]) at columns colIdx[rowPtr[i] .. rowPtr[i + 1]),
+// with column indices sorted within each row.
+public class SparseMatrix {
+    private static final long PARALLEL_WORK = 1 << 20;
+
+    private final int rows;
+    private final int cols;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values;
+    private final double[] diagonal;
+    private volatile int[][] colorClasses;
+
+    public SparseMatrix(int rows, int cols, int[] rowPtr, int[] colIdx, double[] values) {
+        if (rowPtr.length != rows + 1 || rowPtr[0] != 0) {
+            throw new IllegalArgumentException("Row pointer array must have rows + 1 entries starting at 0");
+        }
+        int nnz = rowPtr[rows];
+        if (colIdx.length < nnz || values.length < nnz) {
+            throw new IllegalArgumentException("Column index and value arrays must hold " + nnz + " entries");
+        }
+        for (int i = 0; i < rows; i++) {
+            if (rowPtr[i] > rowPtr[i + 1]) {
+                throw new IllegalArgumentException("Row pointers must be non-decreasing");
+            }
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                Objects.checkIndex(colIdx[k], cols);
+                if (k > rowPtr[i] && colIdx[k] <= colIdx[k - 1]) {
+                    throw new IllegalArgumentException("Column indices must be strictly increasing within row " + i);
+                }
+            }
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+        this.diagonal = extractDiagonal();
+    }
+
+    public static SparseMatrix fromDense(Matrix A) {
+        int rows = A.getRows();
+        int cols = A.getCols();
+        double[] a = A.getData();
+        int[] rowPtr = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            int row = A.getOffset() + i * A.getStride();
+            int count = 0;
+            for (int j = 0; j < cols; j++) {
+                if (a[row + j] != 0.0) {
+                    count++;
+                }
+            }
+            rowPtr[i + 1] = rowPtr[i] + count;
+        }
+        int[] colIdx = new int[rowPtr[rows]];
+        double[] values = new double[rowPtr[rows]];
+        for (int i = 0; i < rows; i++) {
+            int row = A.getOffset() + i * A.getStride();
+            int k = rowPtr[i];
+            for (int j = 0; j < cols; j++) {
+                if (a[row + j] != 0.0) {
+                    colIdx[k] = j;
+                    values[k] = a[row + j];
+                    k++;
+                }
+            }
+        }
+        return new SparseMatrix(rows, cols, rowPtr, colIdx, values);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getNonZeros() { return rowPtr[rows]; }
+
+    // Raw CSR arrays for hot loops
+    public int[] getRowPointers() { return rowPtr; }
+    public int[] getColumnIndices() { return colIdx; }
+    public double[] getValues() { return values; }
+
+    // Diagonal entries cached at construction (zero where not stored)
+    public double[] getDiagonal() { return diagonal; }
+
+    // Multicolor ordering of the rows, computed on first use and then reused
+    public int[][] getColorClasses() {
+        int[][] classes = colorClasses;
+        if (classes == null) {
+            classes = GraphColoring.colorClasses(this);
+            colorClasses = classes;
+        }
+        return classes;
+    }
+
+    public double get(int i, int j) {
+        Objects.checkIndex(i, rows);
+        Objects.checkIndex(j, cols);
+        int k = Arrays.binarySearch(colIdx, rowPtr[i], rowPtr[i + 1], j);
+        return k >= 0 ? values[k] : 0.0;
+    }
+
+    public Vector multiply(Vector x) {
+        Vector result = new Vector(rows);
+        multiplyInto(x, result);
+        return result;
+    }
+
+    // Computes y = A * x into an existing vector, touching only stored entries
+    public void multiplyInto(Vector x, Vector y) {
+        if (cols != x.getSize() || rows != y.getSize()) {
+            throw new IllegalArgumentException("Matrix and vector dimensions don't match for multiplication");
+        }
+        double[] xs = x.getData();
+        double[] ys = y.getData();
+        ParallelRows.RowKernel kernel = (start, end) -> {
+            for (int i = start; i < end; i++) {
+                double sum = 0;
+                for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                    sum += values[k] * xs[colIdx[k]];
+                }
+                ys[i] = sum;
+            }
+        };
+        if (getNonZeros() < PARALLEL_WORK) {
+            kernel.apply(0, rows);
+        } else {
+            int grain = (int) Math.max(1, PARALLEL_WORK / 8 * rows / getNonZeros());
+            ParallelRows.forEach(ForkJoinPool.commonPool(), 0, rows, grain, kernel);
+        }
+    }
+
+    public Matrix toDense() {
+        Matrix dense = new Matrix(rows, cols);
+        double[] a = dense.getData();
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                a[i * cols + colIdx[k]] = values[k];
+            }
+        }
+        return dense;
+    }
+
+    private double[] extractDiagonal() {
+        double[] diag = new double[Math.min(rows, cols)];
+        for (int i = 0; i < diag.length; i++) {
+            int k = Arrays.binarySearch(colIdx, rowPtr[i], rowPtr[i + 1], i);
+            if (k >= 0) {
+                diag[i] = values[k];
+            }
+        }
+        return diag;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseMatrix %dx%d, %d nonzeros", rows, cols, getNonZeros());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Parser for the text system format: "rows cols" on line 1, one matrix row per line,
+// then one vector entry per line. The file is cut into chunks that end on a line
+// feed; a first parallel pass counts lines per chunk so every chunk knows its first
+// line number, and a second pass parses the chunks in parallel into the final arrays.
+final class TextSystemParser {
+    private static final long CHUNK_SIZE = 32L << 20;
+
+    private TextSystemParser() {
+    }
+
+    // True when rows * cols elements cannot be held in one array, including when the product overflows
+    private static boolean exceedsHeapArray(long rows, long cols) {
+        try {
+            return Math.multiplyExact(rows, cols) > Integer.MAX_VALUE - 8;
+        } catch (ArithmeticException e) {
+            return true;
+        }
+    }
+
+    static LinearSystem parse(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0)
+                throw new IOException("Unexpected end of file");
+            long[] bounds = chunkBounds(channel, size);
+            int chunks = bounds.length - 1;
+
+            // Header from the first chunk
+            AsciiTokenizer header = new AsciiTokenizer(map(channel, bounds[0], bounds[1]), 1);
+            long rowCount = header.nextLong();
+            long colCount = header.nextLong();
+            if (rowCount < 0 || colCount < 0 || exceedsHeapArray(rowCount, colCount))
+                throw new IOException("Line 1: invalid dimensions " + rowCount + "x" + colCount);
+            int rows = (int) rowCount;
+            int cols = (int) colCount;
+
+            // First line number of each chunk
+            long[] firstLine = new long[chunks + 1];
+            IOException[] errors = new IOException[chunks];
+            ParallelRows.forEach(ForkJoinPool.commonPool(), 0, chunks, 1, (first, last) -> {
+                for (int c = first; c < last; c++) {
+                    try {
+                        firstLine[c + 1] = countLines(map(channel, bounds[c], bounds[c + 1]));
+                    } catch (IOException e) {
+                        errors[c] = e;
+                    }
+                }
+            });
+            rethrowFirst(errors);
+            firstLine[0] = 1;
+            for (int c = 0; c < chunks; c++) {
+                firstLine[c + 1] += firstLine[c];
+            }
+            // A last line without a trailing line feed still counts
+            long lines = firstLine[chunks] - 1;
+            if (lastByte(channel, size) != '\n') {
+                lines++;
+            }
+            if (lines < 2L * rows + 1)
+                throw new IOException("Unexpected end of file");
+
+            Matrix A = new Matrix(rows, cols);
+            double[] a = A.getData();
+            double[] b = new double[rows];
+            ParallelRows.forEach(ForkJoinPool.commonPool(), 0, chunks, 1, (first, last) -> {
+                for (int c = first; c < last; c++) {
+                    try {
+                        parseChunk(map(channel, bounds[c], bounds[c + 1]), firstLine[c], rows, cols, a, b);
+                    } catch (IOException e) {
+                        errors[c] = e;
+                    }
+                }
+            });
+            // The lowest chunk holds the earliest error in the file
+            rethrowFirst(errors);
+
+            return new LinearSystem(A, Vector.wrap(b));
+        }
+    }
+
+    private static void parseChunk(ByteBuffer buffer, long firstLine, int rows, int cols, double[] a, double[] b)
+            throws IOException {
+        AsciiTokenizer tokens = new AsciiTokenizer(buffer, firstLine);
+        long vectorEnd = 2L * rows + 1;
+        while (tokens.hasMoreLines() && tokens.getLine() <= vectorEnd) {
+            long line = tokens.getLine();
+            if (line > rows + 1) {
+                // Vector entry
+                if (!tokens.hasMoreTokens())
+                    throw new IOException("Line " + line + ": missing vector value");
+                b[(int) (line - rows - 2)] = tokens.nextDouble();
+                if (tokens.hasMoreTokens())
+                    throw new IOException("Line " + line + ": expected a single vector value");
+            } else if (line > 1) {
+                // Matrix row; values past the last column are ignored
+                int i = (int) (line - 2);
+                int row = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    if (!tokens.hasMoreTokens())
+                        throw new IOException("Line " + line + ": row " + (i + 1) + " has " + j + " values, expected " + cols);
+                    a[row + j] = tokens.nextDouble();
+                }
+            }
+            tokens.nextLine();
+        }
+    }
+
+    // Chunk boundaries, each moved forward to just past the next line feed
+    static long[] chunkBounds(FileChannel channel, long size) throws IOException {
+        int chunks = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE));
+        long[] bounds = new long[chunks + 1];
+        int count = 1;
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        for (int c = 1; c < chunks; c++) {
+            long start = Math.max(c * CHUNK_SIZE, bounds[count - 1]);
+            long boundary = nextLineStart(channel, start, size, probe);
+            if (boundary > bounds[count - 1] && boundary < size) {
+                bounds[count++] = boundary;
+            }
+        }
+        bounds[count++] = size;
+        for (int c = 1; c < count; c++) {
+            if (bounds[c] - bounds[c - 1] > Integer.MAX_VALUE)
+                throw new IOException("Line starting at byte " + bounds[c - 1] + " is too long");
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int k = 0; k < read; k++) {
+                if (probe.get(k) == '\n') {
+                    return position + k + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static long countLines(ByteBuffer buffer) {
+        long count = 0;
+        for (int k = buffer.position(); k < buffer.limit(); k++) {
+            if (buffer.get(k) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte lastByte(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0);
+    }
+
+    static MappedByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    private static void rethrowFirst(IOException[] errors) throws IOException {
+        for (IOException error : errors) {
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,393 @@
+package solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Dense matrix kept on disk as square tiles in a memory-mapped file, for systems that do
+// not fit in memory. Tile (I, J) covers rows I*T .. I*T+T-1 and columns J*T .. J*T+T-1,
+// is stored row-major and zero padded at the edges; tiles follow each other row by row.
+// Tiles are worked on through a heap cache holding at most memoryBudget bytes, evicting
+// the least recently used tile and writing it back when modified. Whole tile rows and
+// columns (strips) can also be moved without going through the cache.
+// Not thread-safe: even reads reorder the cache.
+public class TiledMatrix implements AutoCloseable {
+    private static final long REGION_BYTES = 1L << 30;
+
+    private final Path file;
+    private final boolean temporary;
+    private final int rows;
+    private final int cols;
+    private final int tileSize;
+    private final int tileRows;
+    private final int tileCols;
+    private final int tileBytes;
+    private final int tilesPerRegion;
+    private final int capacity;
+    private final long memoryBudget;
+    private FileChannel channel;
+    private MappedByteBuffer[] regions;
+    private DoubleBuffer[] views;
+    private final LinkedHashMap<Integer, Tile> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytesRead;
+    private long bytesWritten;
+
+    private static final class Tile {
+        final double[] data;
+        boolean dirty;
+
+        Tile(double[] data) {
+            this.data = data;
+        }
+    }
+
+    private TiledMatrix(Path file, boolean temporary, int rows, int cols, int tileSize, long memoryBudget)
+            throws IOException {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Invalid matrix dimensions " + rows + "x" + cols);
+        }
+        if (tileSize < 1 || (long) tileSize * tileSize * Double.BYTES > REGION_BYTES) {
+            throw new IllegalArgumentException("Tile size must be between 1 and " + (int) Math.sqrt(REGION_BYTES / Double.BYTES));
+        }
+        this.file = file;
+        this.temporary = temporary;
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+        this.tileRows = (rows + tileSize - 1) / tileSize;
+        this.tileCols = (cols + tileSize - 1) / tileSize;
+        this.tileBytes = tileSize * tileSize * Double.BYTES;
+        this.tilesPerRegion = (int) (REGION_BYTES / tileBytes);
+        // Two tiles must fit so that a tile being modified is never the one evicted
+        long tiles = memoryBudget / tileBytes;
+        if (tiles < 2) {
+            throw new IllegalArgumentException("Memory budget must hold at least two tiles of " + tileBytes + " bytes");
+        }
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, tiles);
+        this.memoryBudget = memoryBudget;
+
+        long tileCount = (long) tileRows * tileCols;
+        int regionCount = (int) ((tileCount + tilesPerRegion - 1) / tilesPerRegion);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            regions = new MappedByteBuffer[regionCount];
+            views = new DoubleBuffer[regionCount];
+            for (int r = 0; r < regionCount; r++) {
+                long first = (long) r * tilesPerRegion;
+                long count = Math.min(tilesPerRegion, tileCount - first);
+                regions[r] = channel.map(FileChannel.MapMode.READ_WRITE, first * tileBytes, count * tileBytes);
+                views[r] = regions[r].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // Creates a zero matrix backed by the given file, which is kept after close()
+    public static TiledMatrix create(String filename, int rows, int cols, int tileSize, long memoryBudget)
+            throws IOException {
+        return new TiledMatrix(Path.of(filename), false, rows, cols, tileSize, memoryBudget);
+    }
+
+    // Creates a zero matrix backed by a scratch file that close() deletes
+    public static TiledMatrix createTemporary(int rows, int cols, int tileSize, long memoryBudget, File directory)
+            throws IOException {
+        Path file = directory == null
+                ? Files.createTempFile("tiles", ".bin")
+                : Files.createTempFile(directory.toPath(), "tiles", ".bin");
+        try {
+            return new TiledMatrix(file, true, rows, cols, tileSize, memoryBudget);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getTileSize() { return tileSize; }
+    public int getTileRows() { return tileRows; }
+    public int getTileCols() { return tileCols; }
+    public Path getFile() { return file; }
+    public long getMemoryBudget() { return memoryBudget; }
+
+    // Tile data moved between the heap and the file so far
+    public long getBytesRead() { return bytesRead; }
+    public long getBytesWritten() { return bytesWritten; }
+
+    // Heap memory one strip (a full tile row or tile column, padded) needs
+    public long getStripBytes() {
+        return (long) tileBytes * Math.max(tileRows, tileCols);
+    }
+
+    public double get(int i, int j) {
+        checkIndex(i, j);
+        return tile(i / tileSize, j / tileSize, false)[(i % tileSize) * tileSize + j % tileSize];
+    }
+
+    public void set(int i, int j, double value) {
+        checkIndex(i, j);
+        tile(i / tileSize, j / tileSize, true)[(i % tileSize) * tileSize + j % tileSize] = value;
+    }
+
+    // Row i into target[offset ..], through the cache so consecutive rows of one tile row
+    // reuse the same tiles when the budget holds a full tile row
+    public void getRow(int i, double[] target, int offset) {
+        Objects.checkIndex(i, rows);
+        int I = i / tileSize;
+        int start = (i % tileSize) * tileSize;
+        for (int J = 0; J < tileCols; J++) {
+            int width = Math.min(tileSize, cols - J * tileSize);
+            System.arraycopy(tile(I, J, false), start, target, offset + J * tileSize, width);
+        }
+    }
+
+    // Cached tile (I, J). Changes to the array are kept until the next call, which may
+    // evict the tile; the array itself stays readable after that
+    double[] tile(int tileRow, int tileCol, boolean forWrite) {
+        ensureOpen();
+        int key = tileRow * tileCols + tileCol;
+        Tile tile = cache.get(key);
+        if (tile == null) {
+            if (cache.size() >= capacity) {
+                // Not recycled: callers may still be reading the evicted tile's array
+                Iterator<Map.Entry<Integer, Tile>> eldest = cache.entrySet().iterator();
+                Map.Entry<Integer, Tile> entry = eldest.next();
+                if (entry.getValue().dirty) {
+                    writeTile(entry.getKey(), entry.getValue().data, 0);
+                }
+                eldest.remove();
+            }
+            tile = new Tile(new double[tileSize * tileSize]);
+            readTile(key, tile.data, 0);
+            cache.put(key, tile);
+        }
+        tile.dirty |= forWrite;
+        return tile.data;
+    }
+
+    // Rows I*T .. I*T+T-1 into strip[r * cols + j]
+    void readRowStrip(int tileRow, double[] strip) {
+        double[] scratch = new double[tileSize * tileSize];
+        for (int J = 0; J < tileCols; J++) {
+            double[] data = peek(tileRow, J, scratch);
+            int width = Math.min(tileSize, cols - J * tileSize);
+            for (int r = 0; r < tileSize; r++) {
+                System.arraycopy(data, r * tileSize, strip, r * cols + J * tileSize, width);
+            }
+        }
+    }
+
+    // Only the strip's rows and columns inside the matrix are used; the padding of edge
+    // tiles is written as zeros whatever the strip holds there
+    void writeRowStrip(int tileRow, double[] strip) {
+        double[] data = new double[tileSize * tileSize];
+        int height = Math.min(tileSize, rows - tileRow * tileSize);
+        for (int J = 0; J < tileCols; J++) {
+            int width = Math.min(tileSize, cols - J * tileSize);
+            if (width < tileSize || height < tileSize) {
+                Arrays.fill(data, 0.0);
+            }
+            for (int r = 0; r < height; r++) {
+                System.arraycopy(strip, r * cols + J * tileSize, data, r * tileSize, width);
+            }
+            poke(tileRow, J, data);
+        }
+    }
+
+    // Rows from firstTileRow*T down of columns J*T .. J*T+T-1 into strip[i * T + c], indexed by global row i
+    void readColumnStrip(int tileCol, int firstTileRow, double[] strip) {
+        double[] scratch = new double[tileSize * tileSize];
+        for (int I = firstTileRow; I < tileRows; I++) {
+            System.arraycopy(peek(I, tileCol, scratch), 0, strip, I * tileSize * tileSize, tileSize * tileSize);
+        }
+    }
+
+    // Padding of edge tiles is written as zeros, as in writeRowStrip
+    void writeColumnStrip(int tileCol, int firstTileRow, double[] strip) {
+        double[] data = new double[tileSize * tileSize];
+        int width = Math.min(tileSize, cols - tileCol * tileSize);
+        for (int I = firstTileRow; I < tileRows; I++) {
+            int height = Math.min(tileSize, rows - I * tileSize);
+            System.arraycopy(strip, I * tileSize * tileSize, data, 0, tileSize * tileSize);
+            if (width < tileSize) {
+                for (int r = 0; r < height; r++) {
+                    Arrays.fill(data, r * tileSize + width, (r + 1) * tileSize, 0.0);
+                }
+            }
+            Arrays.fill(data, height * tileSize, tileSize * tileSize, 0.0);
+            poke(I, tileCol, data);
+        }
+    }
+
+    // Cached copy if there is one, otherwise read into scratch without caching
+    private double[] peek(int tileRow, int tileCol, double[] scratch) {
+        ensureOpen();
+        int key = tileRow * tileCols + tileCol;
+        Tile tile = cache.get(key);
+        if (tile != null) {
+            return tile.data;
+        }
+        readTile(key, scratch, 0);
+        return scratch;
+    }
+
+    private void poke(int tileRow, int tileCol, double[] data) {
+        ensureOpen();
+        int key = tileRow * tileCols + tileCol;
+        Tile tile = cache.get(key);
+        if (tile != null) {
+            System.arraycopy(data, 0, tile.data, 0, data.length);
+            tile.dirty = true;
+        } else {
+            writeTile(key, data, 0);
+        }
+    }
+
+    // y = A * x, streaming the tiles once in file order
+    public void multiplyInto(Vector x, Vector y) {
+        if (cols != x.getSize() || rows != y.getSize()) {
+            throw new IllegalArgumentException("Matrix and vector dimensions don't match for multiplication");
+        }
+        double[] xs = x.getData();
+        double[] ys = y.getData();
+        Arrays.fill(ys, 0.0);
+        double[] scratch = new double[tileSize * tileSize];
+        for (int I = 0; I < tileRows; I++) {
+            int height = Math.min(tileSize, rows - I * tileSize);
+            for (int J = 0; J < tileCols; J++) {
+                double[] data = peek(I, J, scratch);
+                int width = Math.min(tileSize, cols - J * tileSize);
+                for (int r = 0; r < height; r++) {
+                    double sum = 0.0;
+                    for (int c = 0; c < width; c++) {
+                        sum += data[r * tileSize + c] * xs[J * tileSize + c];
+                    }
+                    ys[I * tileSize + r] += sum;
+                }
+            }
+        }
+    }
+
+    public Vector multiply(Vector x) {
+        Vector result = new Vector(rows);
+        multiplyInto(x, result);
+        return result;
+    }
+
+    // Heap copy, only for matrices that do fit in memory
+    public Matrix toMatrix() {
+        Matrix result = new Matrix(rows, cols);
+        double[] strip = new double[tileSize * cols];
+        for (int I = 0; I < tileRows; I++) {
+            readRowStrip(I, strip);
+            int height = Math.min(tileSize, rows - I * tileSize);
+            System.arraycopy(strip, 0, result.getData(), I * tileSize * cols, height * cols);
+        }
+        return result;
+    }
+
+    // Writes every modified cached tile back to the file
+    public void flush() {
+        ensureOpen();
+        for (Map.Entry<Integer, Tile> entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                writeTile(entry.getKey(), entry.getValue().data, 0);
+                entry.getValue().dirty = false;
+            }
+        }
+    }
+
+    // Writes back and drops every cached tile, handing its heap back to the caller; the
+    // cache refills on demand
+    void releaseCache() {
+        flush();
+        cache.clear();
+    }
+
+    private void readTile(int key, double[] target, int offset) {
+        region(key).get((key % tilesPerRegion) * (tileBytes / Double.BYTES), target, offset, tileSize * tileSize);
+        bytesRead += tileBytes;
+    }
+
+    private void writeTile(int key, double[] source, int offset) {
+        region(key).put((key % tilesPerRegion) * (tileBytes / Double.BYTES), source, offset, tileSize * tileSize);
+        bytesWritten += tileBytes;
+    }
+
+    private DoubleBuffer region(int key) {
+        return views[key / tilesPerRegion];
+    }
+
+    private void checkIndex(int i, int j) {
+        Objects.checkIndex(i, rows);
+        Objects.checkIndex(j, cols);
+    }
+
+    private void ensureOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("Tiled matrix has been closed");
+        }
+    }
+
+    // Flushes the cache, or for a temporary matrix deletes its file. The regions are unmapped
+    // first, since some platforms refuse to delete a mapped file; if the delete still fails
+    // the file is left for deleteOnExit rather than failing the caller
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        MappedByteBuffer[] mapped = regions;
+        try {
+            if (!temporary && mapped != null) {
+                flush();
+                for (MappedByteBuffer region : mapped) {
+                    if (region != null) {
+                        region.force();
+                    }
+                }
+            }
+            cache.clear();
+            regions = null;
+            views = null;
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            if (mapped != null) {
+                for (MappedByteBuffer region : mapped) {
+                    OffHeapMatrix.release(region);
+                }
+            }
+            if (temporary) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TiledMatrix %dx%d, %dx%d tiles of %d in %s", rows, cols, tileRows, tileCols, tileSize, file);
+    }
+}
\ No newline at end of file
@@ -1,142 +1,363 @@
-package solver;
-
-public class Validator {
-    
-    public static ValidationResult validateSystem(LinearSystem system) {
-        StringBuilder messages = new StringBuilder();
-        boolean isValid = true;
-        
-        // Check dimensions
-        if (system.getA().getRows() != system.getB().getSize()) {
-            messages.append("Error: Matrix rows (").append(system.getA().getRows())
-                   .append(") don't match vector size (").append(system.getB().getSize()).append(")\n");
-            isValid = false;
-        }
-        
-        // Check for NaN values
-        for (int i = 0; i < system.getA().getRows(); i++) {
-            for (int j = 0; j < system.getA().getCols(); j++) {
-                if (Double.isNaN(system.getA().get(i, j))) {
-                    messages.append("Error: NaN value found in matrix at position (").append(i).append(",").append(j).append(")\n");
-                    isValid = false;
-                }
-            }
-        }
-        
-        for (int i = 0; i < system.getB().getSize(); i++) {
-            if (Double.isNaN(system.getB().get(i))) {
-                messages.append("Error: NaN value found in vector at position ").append(i).append("\n");
-                isValid = false;
-            }
-        }
-        
-        return new ValidationResult(isValid, messages.toString());
-    }
-    
-    public static boolean isDiagonallyDominant(Matrix A) {
-        int n = A.getRows();
-        for (int i = 0; i < n; i++) {
-            double diagonal = Math.abs(A.get(i, i));
-            double rowSum = 0.0;
-            for (int j = 0; j < n; j++) {
-                if (j != i) {
-                    rowSum += Math.abs(A.get(i, j));
-                }
-            }
-            if (diagonal <= rowSum) {
-                return false;
-            }
-        }
-        return true;
-    }
-    
-    public static double calculateDeterminant(Matrix A) {
-        if (A.getRows() != A.getCols()) {
-            throw new IllegalArgumentException("Matrix must be square to calculate determinant");
-        }
-        
-        int n = A.getRows();
-        Matrix temp = A.copy();
-        double det = 1.0;
-        
-        for (int i = 0; i < n; i++) {
-            // Find pivot
-            int pivot = i;
-            for (int j = i + 1; j < n; j++) {
-                if (Math.abs(temp.get(j, i)) > Math.abs(temp.get(pivot, i))) {
-                    pivot = j;
-                }
-            }
-            
-            if (pivot != i) {
-                // Swap rows
-                for (int j = 0; j < n; j++) {
-                    double tmp = temp.get(i, j);
-                    temp.set(i, j, temp.get(pivot, j));
-                    temp.set(pivot, j, tmp);
-                }
-                det = -det;
-            }
-            
-            if (Math.abs(temp.get(i, i)) < 1e-12) {
-                return 0.0;
-            }
-            
-            det *= temp.get(i, i);
-            
-            // Eliminate below
-            for (int j = i + 1; j < n; j++) {
-                double factor = temp.get(j, i) / temp.get(i, i);
-                for (int k = i; k < n; k++) {
-                    temp.set(j, k, temp.get(j, k) - factor * temp.get(i, k));
-                }
-            }
-        }
-        
-        return det;
-    }
-    
-    public static int calculateRank(Matrix A) {
-        Matrix temp = A.copy();
-        int rows = temp.getRows();
-        int cols = temp.getCols();
-        int rank = 0;
-        
-        for (int i = 0; i < rows; i++) {
-            // Find pivot
-            int pivotCol = -1;
-            for (int j = 0; j < cols; j++) {
-                if (Math.abs(temp.get(i, j)) > 1e-12) {
-                    pivotCol = j;
-                    break;
-                }
-            }
-            
-            if (pivotCol != -1) {
-                rank++;
-                // Eliminate below
-                for (int k = i + 1; k < rows; k++) {
-                    double factor = temp.get(k, pivotCol) / temp.get(i, pivotCol);
-                    for (int j = pivotCol; j < cols; j++) {
-                        temp.set(k, j, temp.get(k, j) - factor * temp.get(i, j));
-                    }
-                }
-            }
-        }
-        
-        return rank;
-    }
-    
-    public static class ValidationResult {
-        private final boolean valid;
-        private final String message;
-        
-        public ValidationResult(boolean valid, String message) {
-            this.valid = valid;
-            this.message = message;
-        }
-        
-        public boolean isValid() { return valid; }
-        public String getMessage() { return message; }
-    }
+package solver;
+
+public class Validator {
+    
+    public static ValidationResult validateSystem(LinearSystem system) {
+        StringBuilder messages = new StringBuilder();
+        boolean isValid = true;
+        
+        // Check dimensions
+        if (system.getSize() != system.getB().getSize()) {
+            messages.append("Error: Matrix rows (").append(system.getSize())
+                   .append(") don't match vector size (").append(system.getB().getSize()).append(")\n");
+            isValid = false;
+        }
+        
+        // Check for NaN values
+        if (system.isSparse()) {
+            SparseMatrix A = system.getSparseA();
+            int[] rowPtr = A.getRowPointers();
+            int[] colIdx = A.getColumnIndices();
+            double[] values = A.getValues();
+            for (int i = 0; i < A.getRows(); i++) {
+                for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                    if (Double.isNaN(values[k])) {
+                        messages.append("Error: NaN value found in matrix at position (").append(i).append(",").append(colIdx[k]).append(")\n");
+                        isValid = false;
+                    }
+                }
+            }
+        } else if (system.isOffHeap()) {
+            OffHeapMatrix A = system.getOffHeapA();
+            for (int i = 0; i < A.getRows(); i++) {
+                for (int j = 0; j < A.getCols(); j++) {
+                    if (Double.isNaN(A.get(i, j))) {
+                        messages.append("Error: NaN value found in matrix at position (").append(i).append(",").append(j).append(")\n");
+                        isValid = false;
+                    }
+                }
+            }
+        } else if (system.isTiled()) {
+            TiledMatrix A = system.getTiledA();
+            int tileSize = A.getTileSize();
+            double[] strip = new double[(int) (A.getStripBytes() / Double.BYTES)];
+            for (int I = 0; I < A.getTileRows(); I++) {
+                A.readRowStrip(I, strip);
+                for (int r = 0; r < tileSize && I * tileSize + r < A.getRows(); r++) {
+                    for (int j = 0; j < A.getCols(); j++) {
+                        if (Double.isNaN(strip[r * A.getCols() + j])) {
+                            messages.append("Error: NaN value found in matrix at position (").append(I * tileSize + r).append(",").append(j).append(")\n");
+                            isValid = false;
+                        }
+                    }
+                }
+            }
+        } else {
+            Matrix A = system.getA();
+            double[] a = A.getData();
+            for (int i = 0; i < A.getRows(); i++) {
+                int row = A.getOffset() + i * A.getStride();
+                for (int j = 0; j < A.getCols(); j++) {
+                    if (Double.isNaN(a[row + j])) {
+                        messages.append("Error: NaN value found in matrix at position (").append(i).append(",").append(j).append(")\n");
+                        isValid = false;
+                    }
+                }
+            }
+        }
+        
+        for (int i = 0; i < system.getB().getSize(); i++) {
+            if (Double.isNaN(system.getB().get(i))) {
+                messages.append("Error: NaN value found in vector at position ").append(i).append("\n");
+                isValid = false;
+            }
+        }
+        Matrix B = system.getRightHandSides();
+        for (int c = 1; c < B.getCols(); c++) {
+            for (int i = 0; i < B.getRows(); i++) {
+                if (Double.isNaN(B.get(i, c))) {
+                    messages.append("Error: NaN value found in right-hand side ").append(c + 1).append(" at position ").append(i).append("\n");
+                    isValid = false;
+                }
+            }
+        }
+        
+        return new ValidationResult(isValid, messages.toString());
+    }
+    
+    // Checks the sparse, off-heap or tiled storage when there is one instead of copying it to a Matrix
+    public static boolean isDiagonallyDominant(LinearSystem system) {
+        if (system.isSparse()) {
+            return isDiagonallyDominant(system.getSparseA());
+        }
+        if (system.isTiled()) {
+            return isDiagonallyDominant(system.getTiledA());
+        }
+        return system.isOffHeap()
+                ? isDiagonallyDominant(system.getOffHeapA())
+                : isDiagonallyDominant(system.getA());
+    }
+    
+    public static boolean isDiagonallyDominant(Matrix A) {
+        int n = A.getRows();
+        double[] a = A.getData();
+        for (int i = 0; i < n; i++) {
+            int row = A.getOffset() + i * A.getStride();
+            double diagonal = Math.abs(a[row + i]);
+            double rowSum = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    rowSum += Math.abs(a[row + j]);
+                }
+            }
+            if (diagonal <= rowSum) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isDiagonallyDominant(SparseMatrix A) {
+        int n = A.getRows();
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        double[] diagonal = A.getDiagonal();
+        for (int i = 0; i < n; i++) {
+            double rowSum = 0.0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                if (colIdx[k] != i) {
+                    rowSum += Math.abs(values[k]);
+                }
+            }
+            if (Math.abs(diagonal[i]) <= rowSum) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isDiagonallyDominant(OffHeapMatrix A) {
+        int n = A.getRows();
+        for (int i = 0; i < n; i++) {
+            double rowSum = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    rowSum += Math.abs(A.get(i, j));
+                }
+            }
+            if (Math.abs(A.get(i, i)) <= rowSum) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // One row strip at a time, read past the tile cache
+    public static boolean isDiagonallyDominant(TiledMatrix A) {
+        int n = A.getRows();
+        int cols = A.getCols();
+        int tileSize = A.getTileSize();
+        double[] strip = new double[(int) (A.getStripBytes() / Double.BYTES)];
+        for (int I = 0; I < A.getTileRows(); I++) {
+            A.readRowStrip(I, strip);
+            for (int r = 0; r < tileSize && I * tileSize + r < n; r++) {
+                int i = I * tileSize + r;
+                double rowSum = 0.0;
+                for (int j = 0; j < cols; j++) {
+                    if (j != i) {
+                        rowSum += Math.abs(strip[r * cols + j]);
+                    }
+                }
+                if (Math.abs(strip[r * cols + i]) <= rowSum) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isSymmetric(LinearSystem system) {
+        if (system.isSparse()) {
+            return isSymmetric(system.getSparseA());
+        }
+        if (system.isTiled()) {
+            return isSymmetric(system.getTiledA());
+        }
+        return system.isOffHeap()
+                ? isSymmetric(system.getOffHeapA())
+                : isSymmetric(system.getA());
+    }
+    
+    public static boolean isSymmetric(Matrix A) {
+        if (A.getRows() != A.getCols()) {
+            return false;
+        }
+        int n = A.getRows();
+        double[] a = A.getData();
+        int offset = A.getOffset();
+        int lda = A.getStride();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (!nearlyEqual(a[offset + i * lda + j], a[offset + j * lda + i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isSymmetric(SparseMatrix A) {
+        if (A.getRows() != A.getCols()) {
+            return false;
+        }
+        int[] rowPtr = A.getRowPointers();
+        int[] colIdx = A.getColumnIndices();
+        double[] values = A.getValues();
+        for (int i = 0; i < A.getRows(); i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                int j = colIdx[k];
+                if (j != i && !nearlyEqual(values[k], A.get(j, i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    public static boolean isSymmetric(OffHeapMatrix A) {
+        if (A.getRows() != A.getCols()) {
+            return false;
+        }
+        int n = A.getRows();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (!nearlyEqual(A.get(i, j), A.get(j, i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    // Tile (I, J) against the transpose of tile (J, I); both go through the tile cache,
+    // which always holds two tiles
+    public static boolean isSymmetric(TiledMatrix A) {
+        if (A.getRows() != A.getCols()) {
+            return false;
+        }
+        int n = A.getRows();
+        int tileSize = A.getTileSize();
+        for (int I = 0; I < A.getTileRows(); I++) {
+            int height = Math.min(tileSize, n - I * tileSize);
+            for (int J = I; J < A.getTileCols(); J++) {
+                int width = Math.min(tileSize, n - J * tileSize);
+                double[] upper = A.tile(I, J, false);
+                double[] lower = A.tile(J, I, false);
+                for (int r = 0; r < height; r++) {
+                    for (int c = I == J ? r + 1 : 0; c < width; c++) {
+                        if (!nearlyEqual(upper[r * tileSize + c], lower[c * tileSize + r])) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    static boolean nearlyEqual(double x, double y) {
+        return Math.abs(x - y) <= 1e-12 * Math.max(1.0, Math.max(Math.abs(x), Math.abs(y)));
+    }
+    
+    public static double calculateDeterminant(Matrix A) {
+        if (A.getRows() != A.getCols()) {
+            throw new IllegalArgumentException("Matrix must be square to calculate determinant");
+        }
+        
+        int n = A.getRows();
+        Matrix temp = A.copy();
+        double[] a = temp.getData();
+        double det = 1.0;
+        
+        for (int i = 0; i < n; i++) {
+            // Find pivot
+            int pivot = i;
+            for (int j = i + 1; j < n; j++) {
+                if (Math.abs(a[j * n + i]) > Math.abs(a[pivot * n + i])) {
+                    pivot = j;
+                }
+            }
+            
+            if (pivot != i) {
+                temp.swapRows(i, pivot);
+                det = -det;
+            }
+            
+            int rowI = i * n;
+            if (Math.abs(a[rowI + i]) < 1e-12) {
+                return 0.0;
+            }
+            
+            det *= a[rowI + i];
+            
+            // Eliminate below
+            for (int j = i + 1; j < n; j++) {
+                int rowJ = j * n;
+                double factor = a[rowJ + i] / a[rowI + i];
+                for (int k = i; k < n; k++) {
+                    a[rowJ + k] -= factor * a[rowI + k];
+                }
+            }
+        }
+        
+        return det;
+    }
+    
+    public static int calculateRank(Matrix A) {
+        Matrix temp = A.copy();
+        double[] a = temp.getData();
+        int rows = temp.getRows();
+        int cols = temp.getCols();
+        int rank = 0;
+        
+        for (int i = 0; i < rows; i++) {
+            int rowI = i * cols;
+            // Find pivot
+            int pivotCol = -1;
+            for (int j = 0; j < cols; j++) {
+                if (Math.abs(a[rowI + j]) > 1e-12) {
+                    pivotCol = j;
+                    break;
+                }
+            }
+            
+            if (pivotCol != -1) {
+                rank++;
+                // Eliminate below
+                for (int k = i + 1; k < rows; k++) {
+                    int rowK = k * cols;
+                    double factor = a[rowK + pivotCol] / a[rowI + pivotCol];
+                    for (int j = pivotCol; j < cols; j++) {
+                        a[rowK + j] -= factor * a[rowI + j];
+                    }
+                }
+            }
+        }
+        
+        return rank;
+    }
+    
+    public static class ValidationResult {
+        private final boolean valid;
+        private final String message;
+        
+        public ValidationResult(boolean valid, String message) {
+            this.valid = valid;
+            this.message = message;
+        }
+        
+        public boolean isValid() { return valid; }
+        public String getMessage() { return message; }
+    }
 }
\ No newline at end of file
@@ -1,98 +1,150 @@
-package solver;
-
-public class Vector extends Matrix {
-
-    public Vector(int size) {
-        super(size, 1);
-    }
-
-    public Vector(double[] data) {
-        super(data.length, 1);
-        for (int i = 0; i < data.length; i++) {
-            set(i, 0, data[i]);
-        }
-    }
-
-    public int getSize() {
-        return getRows();
-    }
-
-    public double get(int i) {
-        return super.get(i, 0);
-    }
-
-    public void set(int i, double value) {
-        super.set(i, 0, value);
-    }
-
-    public double dotProduct(Vector other) {
-        if (this.getSize() != other.getSize()) {
-            throw new IllegalArgumentException("Vector sizes don't match");
-        }
-        double sum = 0;
-        for (int i = 0; i < getSize(); i++) {
-            sum += this.get(i) * other.get(i);
-        }
-        return sum;
-    }
-
-    public double norm() {
-        return Math.sqrt(dotProduct(this));
-    }
-
-    // Poprawiona metoda add - nie używaj super.add()
-    public Vector add(Vector other) {
-        if (this.getSize() != other.getSize()) {
-            throw new IllegalArgumentException("Vector sizes don't match for addition");
-        }
-        Vector result = new Vector(getSize());
-        for (int i = 0; i < getSize(); i++) {
-            result.set(i, this.get(i) + other.get(i));
-        }
-        return result;
-    }
-
-    public Vector subtract(Vector other) {
-        if (this.getSize() != other.getSize()) {
-            throw new IllegalArgumentException("Vector sizes don't match for subtraction");
-        }
-        Vector result = new Vector(getSize());
-        for (int i = 0; i < getSize(); i++) {
-            result.set(i, this.get(i) - other.get(i));
-        }
-        return result;
-    }
-
-    public Vector multiply(double scalar) {
-        Vector result = new Vector(getSize());
-        for (int i = 0; i < getSize(); i++) {
-            result.set(i, this.get(i) * scalar);
-        }
-        return result;
-    }
-
-    // Publiczna metoda do konwersji na tablicę
-    public double[] toArray() {
-        double[] array = new double[getSize()];
-        for (int i = 0; i < getSize(); i++) {
-            array[i] = get(i);
-        }
-        return array;
-    }
-
-    // Statyczna metoda do tworzenia Vector z tablicy
-    public static Vector fromArray(double[] data) {
-        return new Vector(data);
-    }
-
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[ ");
-        for (int i = 0; i < getSize(); i++) {
-            sb.append(String.format("%10.6f ", get(i)));
-        }
-        sb.append("]");
-        return sb.toString();
-    }
+package solver;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class Vector {
+    private final double[] data;
+
+    public Vector(int size) {
+        this.data = new double[size];
+    }
+
+    public Vector(double[] data) {
+        this.data = data.clone();
+    }
+
+    private Vector(double[] data, boolean shared) {
+        this.data = data;
+    }
+
+    // Wraps an existing array without copying it
+    public static Vector wrap(double[] data) {
+        return new Vector(Objects.requireNonNull(data), true);
+    }
+
+    public int getSize() {
+        return data.length;
+    }
+
+    public double get(int i) {
+        return data[i];
+    }
+
+    public void set(int i, double value) {
+        data[i] = value;
+    }
+
+    // Raw access for hot loops
+    public double[] getData() {
+        return data;
+    }
+
+    public double dotProduct(Vector other) {
+        checkSize(other, "Vector sizes don't match");
+        return Kernels.dot(data, 0, other.data, 0, data.length);
+    }
+
+    public double norm() {
+        return Math.sqrt(dotProduct(this));
+    }
+
+    public double normInf() {
+        double max = 0.0;
+        for (double value : data) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+
+    // Euclidean distance ||this - other|| without allocating the difference
+    public double distance(Vector other) {
+        checkSize(other, "Vector sizes don't match");
+        double[] y = other.data;
+        double sum = 0;
+        for (int i = 0; i < data.length; i++) {
+            double diff = data[i] - y[i];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+
+    public Vector add(Vector other) {
+        checkSize(other, "Vector sizes don't match for addition");
+        Vector result = new Vector(data.length);
+        for (int i = 0; i < data.length; i++) {
+            result.data[i] = data[i] + other.data[i];
+        }
+        return result;
+    }
+
+    public Vector subtract(Vector other) {
+        checkSize(other, "Vector sizes don't match for subtraction");
+        Vector result = new Vector(data.length);
+        for (int i = 0; i < data.length; i++) {
+            result.data[i] = data[i] - other.data[i];
+        }
+        return result;
+    }
+
+    public Vector multiply(double scalar) {
+        Vector result = new Vector(data.length);
+        for (int i = 0; i < data.length; i++) {
+            result.data[i] = data[i] * scalar;
+        }
+        return result;
+    }
+
+    // In-place this += alpha * x
+    public Vector axpy(double alpha, Vector x) {
+        checkSize(x, "Vector sizes don't match for axpy");
+        Kernels.axpy(alpha, x.data, 0, data, 0, data.length);
+        return this;
+    }
+
+    // In-place this *= alpha
+    public Vector scale(double alpha) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] *= alpha;
+        }
+        return this;
+    }
+
+    public void copyInto(Vector target) {
+        checkSize(target, "Vector sizes don't match for copy");
+        System.arraycopy(data, 0, target.data, 0, data.length);
+    }
+
+    public void fill(double value) {
+        Arrays.fill(data, value);
+    }
+
+    public Vector copy() {
+        return new Vector(data);
+    }
+
+    public double[] toArray() {
+        return data.clone();
+    }
+
+    public static Vector fromArray(double[] data) {
+        return new Vector(data);
+    }
+
+    private void checkSize(Vector other, String message) {
+        if (data.length != other.data.length) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ ");
+        for (int i = 0; i < getSize(); i++) {
+            sb.append(String.format("%10.6f ", get(i)));
+        }
+        sb.append("]");
+        return sb.toString();
+    }
 }
\ No newline at end of file
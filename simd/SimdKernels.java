@@ -0,0 +1,67 @@
+package solver;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Kernels on jdk.incubator.vector with the CPU's preferred vector width. Compiling this
+// class needs --add-modules jdk.incubator.vector, which is why it is kept apart from the
+// other sources and built against them in a second step (see README.md). Kernels only
+// instantiates it when it is on the class path and the module is resolved at run time,
+// and uses the scalar loops otherwise.
+final class SimdKernels extends Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    String describe() {
+        return "simd (" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    double dotKernel(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        int lanes = SPECIES.length();
+        // Two accumulators hide the latency of the fused multiply-adds
+        DoubleVector first = DoubleVector.zero(SPECIES);
+        DoubleVector second = DoubleVector.zero(SPECIES);
+        int k = 0;
+        for (int bound = length - 2 * lanes; k <= bound; k += 2 * lanes) {
+            first = DoubleVector.fromArray(SPECIES, a, aOffset + k)
+                    .fma(DoubleVector.fromArray(SPECIES, b, bOffset + k), first);
+            second = DoubleVector.fromArray(SPECIES, a, aOffset + k + lanes)
+                    .fma(DoubleVector.fromArray(SPECIES, b, bOffset + k + lanes), second);
+        }
+        if (k <= length - lanes) {
+            first = DoubleVector.fromArray(SPECIES, a, aOffset + k)
+                    .fma(DoubleVector.fromArray(SPECIES, b, bOffset + k), first);
+            k += lanes;
+        }
+        double sum = first.add(second).reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+
+    @Override
+    void axpyKernel(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        // Separate multiply and add, not fma, so every element rounds as in the scalar loop
+        DoubleVector scale = DoubleVector.broadcast(SPECIES, alpha);
+        int k = 0;
+        for (int bound = SPECIES.loopBound(length); k < bound; k += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + k).mul(scale)
+                    .add(DoubleVector.fromArray(SPECIES, y, yOffset + k))
+                    .intoArray(y, yOffset + k);
+        }
+        for (; k < length; k++) {
+            y[yOffset + k] += alpha * x[xOffset + k];
+        }
+    }
+
+    @Override
+    double dotExceptKernel(double[] a, int row, double[] x, int n, int skip) {
+        if (skip < 0 || skip >= n) {
+            return dotKernel(a, row, x, 0, n);
+        }
+        return dotKernel(a, row, x, 0, skip) + dotKernel(a, row + skip + 1, x, skip + 1, n - skip - 1);
+    }
+}
\ No newline at end of file